@@ -0,0 +1,223 @@
+package com.crowdfundpro.android.data.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.ProjectFundingTotal;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Migrations de la base locale à partir des schémas exportés (app/schemas) : chaque étape est validée
+ * contre le schéma de sa version cible, et les lignes en cache comme les tables de synthèse doivent survivre
+ * jusqu'à la version courante, y compris à la reconstruction des tables de la version 8
+ * (la version 9 n'ajoute que des index)
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMigrationsTest {
+    
+    private static final String TEST_DB = "migration-test";
+    private static final long DAY = 86400000L;
+    
+    @Rule
+    public final MigrationTestHelper helper = new MigrationTestHelper(
+        InstrumentationRegistry.getInstrumentation(), CrowdfundProDatabase.class);
+    
+    @Test
+    public void migrate1To8() {
+        // Version 1 : statuts en texte, sans commentaires ni synthèses
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO users (id, username, created_at, updated_at) VALUES (1, 'alice', 0, 0), (2, 'bob', 0, 0)");
+        insertProject(db, 10, "Ferme solaire", "'ACTIVE'");
+        insertProject(db, 11, "Atelier vélo", "'CANCELLED'");
+        insertProject(db, 12, "Jardin partagé", "'ARCHIVED'");
+        insertProject(db, 13, null, "NULL");
+        insertInvestment(db, 100, 10, 1, 100, "'COMPLETED'", 3 * DAY + 10);
+        insertInvestment(db, 101, 10, 1, 50, "'COMPLETED'", 3 * DAY + 20);
+        insertInvestment(db, 102, 10, 2, 30, "'PENDING'", 4 * DAY);
+        insertInvestment(db, 103, 11, 2, 20, "'FAILED'", 5 * DAY);
+        db.close();
+        
+        // Version 2 : premier commentaire, qui doit survivre à la suppression de projects en version 8
+        db = helper.runMigrationsAndValidate(TEST_DB, 2, true, DatabaseMigrations.MIGRATION_1_2);
+        db.execSQL("INSERT INTO comments (id, projectId, userId, content, createdAt, updatedAt, isReported, isDeleted) "
+            + "VALUES (1000, 10, 2, 'Bravo', 0, 0, 0, 0)");
+        db.close();
+        
+        db = helper.runMigrationsAndValidate(TEST_DB, 8, true, DatabaseMigrations.all());
+        
+        assertStatus(db, "projects", 10, ProjectStatus.Code.ACTIVE);
+        assertStatus(db, "projects", 11, ProjectStatus.Code.CANCELLED);
+        assertStatus(db, "projects", 12, ProjectStatus.Code.UNKNOWN);
+        assertStatus(db, "projects", 13, null);
+        assertStatus(db, "investments", 100, InvestmentStatus.Code.COMPLETED);
+        assertStatus(db, "investments", 102, InvestmentStatus.Code.PENDING);
+        assertStatus(db, "investments", 103, InvestmentStatus.Code.FAILED);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM comments WHERE id = 1000"));
+        
+        // Index plein texte rempli en version 4 et toujours aligné sur les identifiants après la reconstruction
+        assertEquals(10, count(db, "SELECT rowid FROM projects_fts WHERE projects_fts MATCH 'solaire'"));
+        
+        // Synthèses calculées à partir de l'historique en versions 5 et 6
+        assertRow(db, "SELECT total_amount, investment_count FROM investment_daily_totals WHERE user_id = 1 AND day = 3",
+            150, 2);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM investment_daily_totals"));
+        assertRow(db, "SELECT completed_amount, pending_amount, investment_count FROM project_funding_totals "
+            + "WHERE project_id = 10", 150, 30, 3);
+        assertRow(db, "SELECT completed_amount, pending_amount, investment_count FROM user_funding_totals "
+            + "WHERE user_id = 2", 0, 30, 2);
+        db.close();
+        
+        assertMigratedDatabaseUsable();
+    }
+    
+    @Test
+    public void migrate7To8KeepsSummariesAndTriggers() {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7);
+        db.execSQL("INSERT INTO users (id, username, created_at, updated_at) VALUES (1, 'alice', 0, 0), (2, 'bob', 0, 0)");
+        insertProject(db, 10, "Ferme solaire", "'ACTIVE'");
+        insertProject(db, 12, "Jardin partagé", "'ARCHIVED'");
+        insertProject(db, 13, null, "NULL");
+        insertInvestment(db, 100, 10, 1, 100, "'COMPLETED'", 3 * DAY + 10);
+        insertInvestment(db, 101, 10, 1, 50, "'COMPLETED'", 3 * DAY + 20);
+        insertInvestment(db, 102, 10, 2, 30, "'PENDING'", 4 * DAY);
+        // En version 7, les synthèses étaient déjà à jour (triggers de l'époque)
+        db.execSQL("INSERT INTO investment_daily_totals (user_id, day, total_amount, investment_count) VALUES (1, 3, 150, 2)");
+        db.execSQL("INSERT INTO project_funding_totals (project_id, investment_count, completed_amount, pending_amount) "
+            + "VALUES (10, 3, 150, 30)");
+        db.execSQL("INSERT INTO user_funding_totals (user_id, investment_count, completed_amount, pending_amount) "
+            + "VALUES (1, 2, 150, 0), (2, 1, 0, 30)");
+        db.execSQL("INSERT INTO sync_state (entity, high_water_mark, full_sync_bytes, last_sync_at) "
+            + "VALUES ('projects', 42, -1, 0)");
+        db.close();
+        
+        db = helper.runMigrationsAndValidate(TEST_DB, 8, true, DatabaseMigrations.MIGRATION_7_8);
+        
+        assertStatus(db, "projects", 12, ProjectStatus.Code.UNKNOWN);
+        assertStatus(db, "projects", 13, null);
+        assertEquals(42, count(db, "SELECT high_water_mark FROM sync_state WHERE entity = 'projects'"));
+        assertRow(db, "SELECT total_amount, investment_count FROM investment_daily_totals WHERE user_id = 1 AND day = 3",
+            150, 2);
+        
+        // Triggers recréés sur la nouvelle table : un paiement réussi met les synthèses à jour
+        db.execSQL("UPDATE investments SET status = " + InvestmentStatus.Code.COMPLETED + " WHERE id = 102");
+        assertRow(db, "SELECT completed_amount, pending_amount, investment_count FROM project_funding_totals "
+            + "WHERE project_id = 10", 180, 0, 3);
+        assertRow(db, "SELECT total_amount, investment_count FROM investment_daily_totals WHERE user_id = 2 AND day = 4",
+            30, 1);
+        db.close();
+        
+        assertMigratedDatabaseUsable();
+    }
+    
+    @Test
+    public void migrate8To9AddsEvictionIndices() {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        db.execSQL("INSERT INTO users (id, username, created_at, updated_at) VALUES (1, 'alice', 0, 0), (2, 'bob', 0, 0)");
+        insertProject(db, 10, "Ferme solaire", String.valueOf(ProjectStatus.Code.ACTIVE));
+        insertInvestment(db, 100, 10, 2, 30, String.valueOf(InvestmentStatus.Code.PENDING), 4 * DAY);
+        db.close();
+        
+        db = helper.runMigrationsAndValidate(TEST_DB, 9, true, DatabaseMigrations.MIGRATION_8_9);
+        
+        // Lignes les moins récemment mises à jour lues dans l'index, sans tri
+        assertIndexUsed(db, "SELECT id FROM projects ORDER BY updated_at LIMIT 1", "index_projects_updated_at");
+        assertIndexUsed(db, "SELECT id FROM investments ORDER BY updated_at LIMIT 1", "index_investments_updated_at");
+        assertIndexUsed(db, "SELECT id FROM comments ORDER BY updatedAt LIMIT 1", "index_comments_updatedAt");
+        assertIndexUsed(db, "SELECT * FROM comments WHERE projectId = 10 ORDER BY createdAt",
+            "index_comments_projectId_createdAt");
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM investments WHERE id = 100"));
+        db.close();
+        
+        assertMigratedDatabaseUsable();
+    }
+    
+    /**
+     * Ouverture par Room de la base migrée : lectures par les DAO, synthèses cohérentes, écritures maintenues
+     */
+    private void assertMigratedDatabaseUsable() {
+        CrowdfundProDatabase database = Room.databaseBuilder(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), CrowdfundProDatabase.class, TEST_DB)
+            .addCallback(DatabaseTriggers.callback())
+            .addMigrations(DatabaseMigrations.all())
+            .build();
+        helper.closeWhenFinished(database);
+        
+        assertEquals(ProjectStatus.ACTIVE, database.projectDao().getProjectById(10).getStatus());
+        assertEquals(ProjectStatus.UNKNOWN, database.projectDao().getProjectById(12).getStatus());
+        assertNull(database.projectDao().getProjectById(13).getStatus());
+        assertEquals(0, database.verifyInvestmentDailyTotals());
+        assertEquals(0, database.verifyFundingTotals());
+        
+        database.investmentDao().upsertInvestments(Collections.singletonList(
+            new Investment(200, 10, 1, 25, InvestmentStatus.COMPLETED, null, null, 3 * DAY + 30, 1)));
+        ProjectFundingTotal total = database.investmentDao().getProjectFundingTotal(10);
+        assertEquals(4, total.getInvestmentCount());
+        assertEquals(0, database.verifyInvestmentDailyTotals());
+        assertEquals(0, database.verifyFundingTotals());
+    }
+    
+    private static void insertProject(SupportSQLiteDatabase db, int id, String title, String status) {
+        db.execSQL("INSERT INTO projects (id, title, description, target_amount, current_amount, status, creator_id, "
+                + "category_id, created_at, end_date, updated_at) VALUES (?, ?, 'Projet local', 1000, 0, " + status
+                + ", 1, 1, ?, 0, 0)",
+            new Object[] {id, title, id * 1000L});
+    }
+    
+    private static void insertInvestment(SupportSQLiteDatabase db, int id, int projectId, int userId, double amount,
+                                         String status, long createdAt) {
+        db.execSQL("INSERT INTO investments (id, project_id, user_id, amount, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, " + status + ", ?, 0)",
+            new Object[] {id, projectId, userId, amount, createdAt});
+    }
+    
+    private static void assertStatus(SupportSQLiteDatabase db, String table, int id, Integer expected) {
+        try (Cursor cursor = db.query("SELECT status, typeof(status) FROM " + table + " WHERE id = ?", new Object[] {id})) {
+            assertTrue(cursor.moveToFirst());
+            if (expected == null) {
+                assertTrue(cursor.isNull(0));
+            } else {
+                assertEquals("integer", cursor.getString(1));
+                assertEquals(expected.intValue(), cursor.getInt(0));
+            }
+        }
+    }
+    
+    private static void assertIndexUsed(SupportSQLiteDatabase db, String sql, String index) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql)) {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append('\n');
+            }
+        }
+        assertTrue(plan.toString(), plan.indexOf(index) >= 0 && plan.indexOf("TEMP B-TREE") < 0);
+    }
+    
+    private static long count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+    
+    private static void assertRow(SupportSQLiteDatabase db, String sql, double... expected) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], cursor.getDouble(i), 0.001);
+            }
+        }
+    }
+}
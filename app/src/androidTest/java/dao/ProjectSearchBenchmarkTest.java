@@ -0,0 +1,121 @@
+package com.crowdfundpro.android.data.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectFts;
+import com.crowdfundpro.android.data.models.ProjectSearchResult;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import com.crowdfundpro.android.data.models.User;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Recherche locale sur 50 000 projets en cache : LIKE à joker initial (ancienne requête, parcours complet)
+ * contre l'index plein texte (MATCH, classement et LIMIT en SQL)
+ * Durées médianes publiées dans logcat (tag ProjectSearchBenchmark)
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProjectSearchBenchmarkTest {
+    
+    private static final String TAG = "ProjectSearchBenchmark";
+    
+    private static final int PROJECT_COUNT = 50_000;
+    private static final int RUNS = 20;
+    private static final int PAGE_SIZE = 20;
+    private static final String QUERY = "solai";
+    
+    private static final String[] WORDS = {
+        "solaire", "école", "jardin", "énergie", "vélo", "musique", "forêt", "atelier", "quartier", "eau",
+        "livre", "robot", "santé", "ferme", "théâtre", "recyclage", "cinéma", "potager", "festival", "artisan"
+    };
+    
+    private CrowdfundProDatabase db;
+    
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                CrowdfundProDatabase.class)
+            .addCallback(DatabaseTriggers.callback())
+            .build();
+        db.userDao().upsertUser(new User(1, "creator", "creator@example.com", null, null, 0, 0));
+        
+        Random random = new Random(42);
+        List<Project> batch = new ArrayList<>();
+        for (int id = 1; id <= PROJECT_COUNT; id++) {
+            batch.add(new Project(id, words(random, 5), words(random, 60), 1000, 0, ProjectStatus.ACTIVE,
+                1, 1 + random.nextInt(10), null, id * 1000L, 0, 0));
+            if (batch.size() == 1000) {
+                List<Project> rows = batch;
+                db.projectDao().upsertProjects(rows);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+    }
+    
+    @Test
+    public void ftsSearchIsFasterThanLeadingWildcardLike() {
+        long[] like = new long[RUNS];
+        long[] fts = new long[RUNS];
+        int likeRows = 0;
+        List<ProjectSearchResult> results = null;
+        
+        for (int run = 0; run < RUNS; run++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try (Cursor cursor = db.query("SELECT * FROM projects WHERE title LIKE ? ORDER BY created_at DESC",
+                    new Object[] {"%" + QUERY + "%"})) {
+                likeRows = cursor.getCount();
+            }
+            like[run] = SystemClock.elapsedRealtimeNanos() - start;
+            
+            start = SystemClock.elapsedRealtimeNanos();
+            results = db.projectDao().searchProjects(ProjectFts.toMatchQuery(QUERY),
+                ProjectFts.toTitleMatchQuery(QUERY), PAGE_SIZE);
+            for (ProjectSearchResult result : results) {
+                result.getScore();
+            }
+            fts[run] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+        
+        Log.i(TAG, PROJECT_COUNT + " projets, requête '" + QUERY + "' : LIKE " + medianMs(like) + " ms ("
+            + likeRows + " lignes), FTS " + medianMs(fts) + " ms (" + results.size() + " lignes)");
+        
+        assertEquals(PAGE_SIZE, results.size());
+        // Les titres correspondants passent en tête
+        assertTrue(results.get(0).getProject().getTitle().contains("solaire"));
+        assertTrue(medianMs(fts) < medianMs(like));
+    }
+    
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) text.append(' ');
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+    
+    private static double medianMs(long[] durationsNs) {
+        long[] sorted = Arrays.copyOf(durationsNs, durationsNs.length);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
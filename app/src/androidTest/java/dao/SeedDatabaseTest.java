@@ -0,0 +1,56 @@
+package com.crowdfundpro.android.data.db;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.crowdfundpro.android.data.models.Category;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Base pré-remplie livrée dans les assets (generateSeedDatabase), ouverte comme au premier lancement :
+ * Room copie l'asset puis vérifie sa version et son empreinte d'identité avant toute lecture
+ */
+@RunWith(AndroidJUnit4.class)
+public class SeedDatabaseTest {
+    
+    private static final String TEST_DB = "seed-test";
+    
+    private Context context;
+    private CrowdfundProDatabase db;
+    
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+    }
+    
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+        context.deleteDatabase(TEST_DB);
+    }
+    
+    @Test
+    public void seedAssetOpensWithCompiledSchema() {
+        // Même configuration que getDatabase(), sans repli destructif : une empreinte différente fait échouer l'ouverture
+        db = Room.databaseBuilder(context, CrowdfundProDatabase.class, TEST_DB)
+            .createFromAsset(CrowdfundProDatabase.SEED_ASSET)
+            .addCallback(DatabaseTriggers.callback())
+            .addMigrations(DatabaseMigrations.all())
+            .build();
+        
+        List<Category> categories = db.categoryDao().getAllCategories();
+        assertEquals(10, categories.size());
+        assertEquals(0, db.verifyInvestmentDailyTotals());
+        assertEquals(0, db.verifyFundingTotals());
+    }
+}
@@ -103,8 +103,7 @@ public class CommentsActivity extends AppCompatActivity {
             if (posted != null && posted) {
                 etComment.setText("");
                 Toast.makeText(this, "Commentaire publié avec succès", Toast.LENGTH_SHORT).show();
-                // Recharger les commentaires
-                socialViewModel.loadComments(projectId);
+                // Le nouveau commentaire est enregistré en base : la liste observée se met à jour seule
             }
         });
     }
@@ -11,8 +11,10 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.crowdfundpro.android.R;
+import com.crowdfundpro.android.data.models.InvestmentPeriodTotal;
 import com.crowdfundpro.android.ui.projects.ProjectListActivity;
 import com.crowdfundpro.android.ui.investments.InvestmentHistoryActivity;
+import com.crowdfundpro.android.utils.TokenManager;
 import com.github.mikephil.charting.charts.PieChart;
 import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.data.PieData;
@@ -47,6 +49,8 @@ public class DashboardActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Stockage des tokens ouvert en arrière-plan pendant la construction de l'écran (sans effet s'il l'est déjà)
+        TokenManager.preload(this);
         setContentView(R.layout.activity_dashboard);
         
         initViews();
@@ -114,6 +118,19 @@ public class DashboardActivity extends AppCompatActivity {
             }
         });
         
+        dashboardViewModel.getInvestmentSeries().observe(this, series -> {
+            if (series != null) {
+                updateLineChart(series);
+            }
+        });
+        
+        // Le compteur de projets peut arriver avant les statistiques d'investissement
+        dashboardViewModel.getTotalProjects().observe(this, totalProjects -> {
+            if (totalProjects != null) {
+                tvTotalProjects.setText(String.valueOf(totalProjects));
+            }
+        });
+        
         dashboardViewModel.getRecentActivity().observe(this, activities -> {
             if (activities != null) {
                 recentActivityAdapter.setActivities(activities);
@@ -167,7 +184,6 @@ public class DashboardActivity extends AppCompatActivity {
     
     private void updateCharts(DashboardViewModel.DashboardData data) {
         updatePieChart(data);
-        updateLineChart(data);
     }
     
     private void updatePieChart(DashboardViewModel.DashboardData data) {
@@ -205,13 +221,12 @@ public class DashboardActivity extends AppCompatActivity {
         }
     }
     
-    private void updateLineChart(DashboardViewModel.DashboardData data) {
+    private void updateLineChart(List<InvestmentPeriodTotal> series) {
         List<Entry> entries = new ArrayList<>();
         
-        // Données simulées pour l'évolution des investissements
-        // TODO: Remplacer par de vraies données depuis l'API
-        for (int i = 0; i < 12; i++) {
-            entries.add(new Entry(i, (float) (Math.random() * 1000 + 500)));
+        // Montants investis par mois, du plus ancien au plus récent
+        for (int i = 0; i < series.size(); i++) {
+            entries.add(new Entry(i, (float) series.get(i).getTotalAmount()));
         }
         
         LineDataSet dataSet = new LineDataSet(entries, "Évolution des investissements");
@@ -9,7 +9,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.crowdfundpro.android.R;
-import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentWithProject;
 import java.util.List;
 
 /**
@@ -61,14 +61,11 @@ public class InvestmentHistoryActivity extends AppCompatActivity {
         investmentViewModel.getInvestments().observe(this, investments -> {
             if (investments != null) {
                 investmentAdapter.setInvestments(investments);
-                showLoading(false);
-                
-                // Afficher un message si la liste est vide
-                if (investments.isEmpty()) {
-                    findViewById(R.id.layout_empty).setVisibility(View.VISIBLE);
-                } else {
-                    findViewById(R.id.layout_empty).setVisibility(View.GONE);
+                // Le cache peut être vide avant la réponse du serveur : on attend celle-ci pour conclure
+                if (!investments.isEmpty()) {
+                    showLoading(false);
                 }
+                updateEmptyState();
             }
         });
         
@@ -81,9 +78,20 @@ public class InvestmentHistoryActivity extends AppCompatActivity {
         
         investmentViewModel.getLoading().observe(this, isLoading -> {
             showLoading(isLoading);
+            updateEmptyState();
         });
     }
     
+    /**
+     * Message affiché si la liste est vide une fois le chargement terminé
+     */
+    private void updateEmptyState() {
+        List<InvestmentWithProject> investments = investmentViewModel.getInvestments().getValue();
+        boolean loading = Boolean.TRUE.equals(investmentViewModel.getLoading().getValue());
+        boolean empty = !loading && (investments == null || investments.isEmpty());
+        findViewById(R.id.layout_empty).setVisibility(empty ? View.VISIBLE : View.GONE);
+    }
+    
     private void showLoading(boolean isLoading) {
         progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
         recyclerViewInvestments.setVisibility(isLoading ? View.GONE : View.VISIBLE);
@@ -13,6 +13,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import com.crowdfundpro.android.R;
 import com.crowdfundpro.android.ui.dashboard.DashboardActivity;
+import com.crowdfundpro.android.utils.TokenManager;
 
 /**
  * Activité de connexion utilisateur
@@ -31,6 +32,8 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Stockage des tokens ouvert en arrière-plan pendant la construction de l'écran (sans effet s'il l'est déjà)
+        TokenManager.preload(this);
         setContentView(R.layout.activity_login);
         
         initViews();
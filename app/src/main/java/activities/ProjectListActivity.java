@@ -15,6 +15,7 @@ import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.crowdfundpro.android.R;
 import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectStatus;
 import com.crowdfundpro.android.data.models.Category;
 import java.util.List;
 
@@ -32,6 +33,9 @@ public class ProjectListActivity extends AppCompatActivity implements ProjectAda
     
     private ProjectViewModel projectViewModel;
     
+    // Nombre d'éléments restant avant l'extrémité de la liste à partir duquel la page suivante est demandée
+    private static final int PREFETCH_DISTANCE = 5;
+    
     private String currentSearchQuery = "";
     private Integer selectedCategoryId = null;
     
@@ -66,8 +70,22 @@ public class ProjectListActivity extends AppCompatActivity implements ProjectAda
     
     private void setupRecyclerView() {
         projectAdapter = new ProjectAdapter(this);
-        recyclerViewProjects.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerViewProjects.setLayoutManager(layoutManager);
         recyclerViewProjects.setAdapter(projectAdapter);
+        
+        // Défilement infini : les pages voisines sont demandées avant d'atteindre l'extrémité
+        recyclerViewProjects.addOnScrollListener(new PaginationScrollListener(layoutManager, PREFETCH_DISTANCE) {
+            @Override
+            protected void loadNextPage() {
+                projectViewModel.loadNextPage();
+            }
+            
+            @Override
+            protected void loadPreviousPage() {
+                projectViewModel.loadPreviousPage();
+            }
+        });
     }
     
     private void setupSearchView() {
@@ -152,7 +170,7 @@ public class ProjectListActivity extends AppCompatActivity implements ProjectAda
     }
     
     private void loadProjects() {
-        projectViewModel.loadProjects(1, 20, selectedCategoryId, currentSearchQuery, "ACTIVE");
+        projectViewModel.loadProjectFeed(selectedCategoryId, currentSearchQuery, ProjectStatus.ACTIVE);
     }
     
     private void loadCategories() {
@@ -7,7 +7,8 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.crowdfundpro.android.R;
-import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.InvestmentWithProject;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -20,7 +21,7 @@ import java.util.Locale;
  */
 public class InvestmentAdapter extends RecyclerView.Adapter<InvestmentAdapter.InvestmentViewHolder> {
     
-    private List<Investment> investments = new ArrayList<>();
+    private List<InvestmentWithProject> investments = new ArrayList<>();
     private NumberFormat currencyFormat;
     private SimpleDateFormat dateFormat;
     
@@ -39,7 +40,7 @@ public class InvestmentAdapter extends RecyclerView.Adapter<InvestmentAdapter.In
     
     @Override
     public void onBindViewHolder(@NonNull InvestmentViewHolder holder, int position) {
-        Investment investment = investments.get(position);
+        InvestmentWithProject investment = investments.get(position);
         holder.bind(investment);
     }
     
@@ -48,7 +49,7 @@ public class InvestmentAdapter extends RecyclerView.Adapter<InvestmentAdapter.In
         return investments.size();
     }
     
-    public void setInvestments(List<Investment> investments) {
+    public void setInvestments(List<InvestmentWithProject> investments) {
         this.investments = investments != null ? investments : new ArrayList<>();
         notifyDataSetChanged();
     }
@@ -70,12 +71,16 @@ public class InvestmentAdapter extends RecyclerView.Adapter<InvestmentAdapter.In
             tvTransactionId = itemView.findViewById(R.id.tv_transaction_id);
         }
         
-        public void bind(Investment investment) {
+        public void bind(InvestmentWithProject investment) {
             // Montant
             tvAmount.setText(currencyFormat.format(investment.getAmount()));
             
-            // Titre du projet (TODO: récupérer depuis la base de données)
-            tvProjectTitle.setText("Projet #" + investment.getProjectId());
+            // Titre du projet (joint par la requête ; le projet peut ne pas être encore en cache)
+            if (investment.getProjectTitle() != null) {
+                tvProjectTitle.setText(investment.getProjectTitle());
+            } else {
+                tvProjectTitle.setText("Projet #" + investment.getProjectId());
+            }
             
             // Date
             tvDate.setText(dateFormat.format(new Date(investment.getCreatedAt())));
@@ -93,33 +98,35 @@ public class InvestmentAdapter extends RecyclerView.Adapter<InvestmentAdapter.In
             }
         }
         
-        private String getStatusText(String status) {
+        private String getStatusText(InvestmentStatus status) {
+            if (status == null) return "";
             switch (status) {
-                case "PENDING":
+                case PENDING:
                     return "En attente";
-                case "COMPLETED":
+                case COMPLETED:
                     return "Terminé";
-                case "FAILED":
+                case FAILED:
                     return "Échec";
-                case "REFUNDED":
+                case REFUNDED:
                     return "Remboursé";
-                case "CANCELLED":
+                case CANCELLED:
                     return "Annulé";
                 default:
-                    return status;
+                    return status.name();
             }
         }
         
-        private int getStatusColor(String status) {
+        private int getStatusColor(InvestmentStatus status) {
+            if (status == null) return itemView.getContext().getColor(R.color.text_secondary_dark);
             switch (status) {
-                case "COMPLETED":
+                case COMPLETED:
                     return itemView.getContext().getColor(R.color.success);
-                case "FAILED":
-                case "CANCELLED":
+                case FAILED:
+                case CANCELLED:
                     return itemView.getContext().getColor(R.color.error);
-                case "PENDING":
+                case PENDING:
                     return itemView.getContext().getColor(R.color.warning);
-                case "REFUNDED":
+                case REFUNDED:
                     return itemView.getContext().getColor(R.color.info);
                 default:
                     return itemView.getContext().getColor(R.color.text_secondary_dark);
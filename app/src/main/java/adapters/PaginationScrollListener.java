@@ -0,0 +1,45 @@
+package com.crowdfundpro.android.ui.projects;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Déclenche le chargement de la page suivante (ou précédente) quand l'utilisateur arrive
+ * à moins de prefetchDistance éléments d'une extrémité de la liste
+ */
+public abstract class PaginationScrollListener extends RecyclerView.OnScrollListener {
+    
+    private final LinearLayoutManager layoutManager;
+    private final int prefetchDistance;
+    
+    public PaginationScrollListener(LinearLayoutManager layoutManager, int prefetchDistance) {
+        this.layoutManager = layoutManager;
+        this.prefetchDistance = prefetchDistance;
+    }
+    
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy > 0) {
+            int lastVisible = layoutManager.findLastVisibleItemPosition();
+            if (lastVisible >= layoutManager.getItemCount() - 1 - prefetchDistance) {
+                loadNextPage();
+            }
+        } else if (dy < 0) {
+            int firstVisible = layoutManager.findFirstVisibleItemPosition();
+            if (firstVisible != RecyclerView.NO_POSITION && firstVisible <= prefetchDistance) {
+                loadPreviousPage();
+            }
+        }
+    }
+    
+    /**
+     * Appelée à l'approche de la fin de la liste (peut l'être plusieurs fois pendant un chargement)
+     */
+    protected abstract void loadNextPage();
+    
+    /**
+     * Appelée à l'approche du début de la liste
+     */
+    protected abstract void loadPreviousPage();
+}
@@ -7,6 +7,7 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.crowdfundpro.android.R;
 import com.crowdfundpro.android.data.models.Project;
@@ -55,9 +56,40 @@ public class ProjectAdapter extends RecyclerView.Adapter<ProjectAdapter.ProjectV
         return projects.size();
     }
     
+    /**
+     * Mise à jour de la liste avec notifications ciblées
+     * Les pages retirées ou ajoutées hors de l'écran ne font pas sauter la position de défilement
+     */
     public void setProjects(List<Project> projects) {
-        this.projects = projects != null ? projects : new ArrayList<>();
-        notifyDataSetChanged();
+        final List<Project> oldProjects = this.projects;
+        final List<Project> newProjects = projects != null ? projects : new ArrayList<>();
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldProjects.size();
+            }
+            
+            @Override
+            public int getNewListSize() {
+                return newProjects.size();
+            }
+            
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return oldProjects.get(oldPosition).getId() == newProjects.get(newPosition).getId();
+            }
+            
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                Project oldProject = oldProjects.get(oldPosition);
+                Project newProject = newProjects.get(newPosition);
+                return oldProject == newProject
+                    || (oldProject.getUpdatedAt() == newProject.getUpdatedAt()
+                        && oldProject.getCurrentAmount() == newProject.getCurrentAmount());
+            }
+        });
+        this.projects = newProjects;
+        diff.dispatchUpdatesTo(this);
     }
     
     class ProjectViewHolder extends RecyclerView.ViewHolder {
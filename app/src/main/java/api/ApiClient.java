@@ -0,0 +1,75 @@
+package com.crowdfundpro.android.data.api;
+
+import android.content.Context;
+import com.crowdfundpro.android.BuildConfig;
+import com.crowdfundpro.android.utils.TokenManager;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.logging.HttpLoggingInterceptor;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Client HTTP partagé par tous les services Retrofit
+ * Cache HTTP sur disque et requêtes conditionnelles (ConditionalGetInterceptor) pour les endpoints de lecture
+ * En-tête Authorization ajouté depuis la session en mémoire (AuthInterceptor), token d'accès rafraîchi
+ * automatiquement sur réponse 401 (TokenAuthenticator)
+ */
+public final class ApiClient {
+    
+    // Taille maximale du cache HTTP sur disque
+    static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+    
+    private static final long TIMEOUT_SECONDS = 30;
+    
+    private static volatile ApiClient INSTANCE;
+    
+    private final ConditionalGetInterceptor conditionalGet = new ConditionalGetInterceptor();
+    private final Retrofit retrofit;
+    
+    private ApiClient(Context context) {
+        TokenManager tokenManager = new TokenManager(context);
+        OkHttpClient.Builder client = new OkHttpClient.Builder()
+            .cache(new Cache(new File(context.getCacheDir(), "http"), HTTP_CACHE_SIZE))
+            .addInterceptor(conditionalGet)
+            .addInterceptor(new AuthInterceptor(tokenManager))
+            .authenticator(new TokenAuthenticator(tokenManager, () -> create(AuthApiService.class)))
+            .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+            logging.setLevel(HttpLoggingInterceptor.Level.BASIC);
+            client.addInterceptor(logging);
+        }
+        
+        retrofit = new Retrofit.Builder()
+            .baseUrl(BuildConfig.API_BASE_URL)
+            .client(client.build())
+            .addConverterFactory(GsonConverterFactory.create())
+            .build();
+    }
+    
+    public static ApiClient getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ApiClient.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ApiClient(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+    
+    /**
+     * Implémentation d'un service Retrofit (AuthApiService, ProjectApiService...)
+     */
+    public <T> T create(Class<T> service) {
+        return retrofit.create(service);
+    }
+    
+    public ConditionalGetInterceptor getConditionalGet() {
+        return conditionalGet;
+    }
+}
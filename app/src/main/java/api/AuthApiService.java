@@ -29,6 +29,7 @@ public interface AuthApiService {
     
     /**
      * Déconnexion utilisateur
+     * En-tête explicite : la session locale est effacée sans attendre l'envoi de la requête
      */
     @POST("api/auth/logout/")
     Call<Void> logout(@Header("Authorization") String token);
@@ -36,14 +37,16 @@ public interface AuthApiService {
     /**
      * Récupération du profil utilisateur
      */
+    @Authenticated
     @GET("api/users/profile/")
-    Call<User> getUserProfile(@Header("Authorization") String token);
+    Call<User> getUserProfile();
     
     /**
      * Mise à jour du profil utilisateur
      */
+    @Authenticated
     @PUT("api/users/profile/")
-    Call<User> updateUserProfile(@Header("Authorization") String token, @Body User user);
+    Call<User> updateUserProfile(@Body User user);
     
     // Classes de requête et réponse
     class LoginRequest {
@@ -103,9 +106,14 @@ public interface AuthApiService {
     
     class TokenResponse {
         private String access_token;
+        // Absent si le serveur ne renouvelle pas le token de rafraîchissement
+        private String refresh_token;
         
         public String getAccessToken() { return access_token; }
         public void setAccessToken(String access_token) { this.access_token = access_token; }
+        
+        public String getRefreshToken() { return refresh_token; }
+        public void setRefreshToken(String refresh_token) { this.refresh_token = refresh_token; }
     }
     
     class RefreshTokenRequest {
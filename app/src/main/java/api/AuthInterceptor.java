@@ -0,0 +1,42 @@
+package com.crowdfundpro.android.data.api;
+
+import com.crowdfundpro.android.utils.AuthSession;
+import com.crowdfundpro.android.utils.TokenManager;
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Ajout de l'en-tête Authorization aux endpoints annotés @Authenticated, depuis la session en mémoire
+ * (en-tête déjà construit : ni lecture des préférences chiffrées ni concaténation par requête)
+ * Un en-tête fourni explicitement par l'appelant est conservé
+ */
+public class AuthInterceptor implements Interceptor {
+    
+    private final TokenManager tokenManager;
+    
+    public AuthInterceptor(TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null || !invocation.method().isAnnotationPresent(Authenticated.class)
+                || request.header("Authorization") != null) {
+            return chain.proceed(request);
+        }
+        
+        AuthSession session = tokenManager.getSession();
+        if (!session.isAuthenticated()) {
+            // Sans session, la requête part telle quelle et le serveur répond 401
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder()
+            .header("Authorization", session.getAuthorizationHeader())
+            .build());
+    }
+}
@@ -0,0 +1,16 @@
+package com.crowdfundpro.android.data.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Endpoint de lecture public dont la réponse peut être revalidée (ETag / Last-Modified)
+ * Voir ConditionalGetInterceptor
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConditionalGet {}
@@ -0,0 +1,134 @@
+package com.crowdfundpro.android.data.api;
+
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Requêtes conditionnelles pour les endpoints annotés @ConditionalGet
+ * Pour chaque URL, garde les validateurs (ETag, Last-Modified) et le corps déjà analysé de la dernière réponse
+ * traitée par un repository (remember) ; la requête suivante les renvoie au serveur (If-None-Match,
+ * If-Modified-Since) et une réponse 304 arrive telle quelle, sans corps : le repository reprend alors le corps
+ * déjà analysé (notModifiedBody), sans téléchargement ni analyse JSON, et le renvoie au tampon d'écriture
+ * (les lignes ont pu être supprimées du cache depuis ; celles qui sont inchangées ne sont pas réécrites)
+ * Sans validateurs en mémoire (premier appel, redémarrage), c'est le cache HTTP sur disque qui revalide
+ */
+public class ConditionalGetInterceptor implements Interceptor {
+    
+    // Nombre d'URL dont la dernière réponse est gardée en mémoire
+    static final int MAX_ENTRIES = 32;
+    
+    // Noms des métriques exposées dans PerformanceMetrics
+    public static final String METRIC_HITS = "http_cache.hits";
+    public static final String METRIC_REVALIDATED = "http_cache.revalidated";
+    public static final String METRIC_MISSES = "http_cache.misses";
+    
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isConditional(request)) {
+            return chain.proceed(request);
+        }
+        
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(request.url().toString());
+        }
+        if (entry != null && request.header("If-None-Match") == null && request.header("If-Modified-Since") == null) {
+            // L'entrée voyage avec la requête : le 304 est rapproché du corps validé, même si l'URL a changé depuis
+            Request.Builder builder = request.newBuilder().tag(Entry.class, entry);
+            if (entry.etag != null) {
+                builder.header("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                builder.header("If-Modified-Since", entry.lastModified);
+            }
+            request = builder.build();
+        }
+        
+        Response response = chain.proceed(request);
+        Response networkResponse = response.networkResponse();
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED
+                || (networkResponse != null && networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED)) {
+            PerformanceMetrics.increment(METRIC_REVALIDATED);
+        } else if (response.cacheResponse() != null && networkResponse == null) {
+            PerformanceMetrics.increment(METRIC_HITS);
+        } else {
+            PerformanceMetrics.increment(METRIC_MISSES);
+        }
+        return response;
+    }
+    
+    /**
+     * Corps déjà analysé si le serveur a répondu 304 (contenu inchangé), null sinon
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T notModifiedBody(retrofit2.Response<T> response) {
+        if (response.code() != HttpURLConnection.HTTP_NOT_MODIFIED) return null;
+        Entry entry = response.raw().request().tag(Entry.class);
+        return entry != null ? (T) entry.body : null;
+    }
+    
+    /**
+     * Mémorisation d'une réponse traitée (écrite en base) et de ses validateurs
+     * À n'appeler qu'une fois le corps pris en compte : un 304 ultérieur signifie « rien à refaire »
+     */
+    public void remember(retrofit2.Response<?> response) {
+        okhttp3.Response raw = response.raw();
+        if (!response.isSuccessful() || response.body() == null || !isConditional(raw.request())) return;
+        
+        String url = raw.request().url().toString();
+        String etag = raw.header("ETag");
+        String lastModified = raw.header("Last-Modified");
+        synchronized (entries) {
+            if (etag == null && lastModified == null) {
+                entries.remove(url);
+            } else {
+                entries.put(url, new Entry(etag, lastModified, response.body()));
+            }
+        }
+    }
+    
+    /**
+     * Oubli de toutes les réponses mémorisées (déconnexion) : les requêtes suivantes repartent sans validateurs
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    private static boolean isConditional(Request request) {
+        if (!"GET".equals(request.method())) return false;
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(ConditionalGet.class);
+    }
+    
+    /**
+     * Validateurs et corps analysé de la dernière réponse traitée pour une URL
+     */
+    private static final class Entry {
+        final String etag;
+        final String lastModified;
+        final Object body;
+        
+        Entry(String etag, String lastModified, Object body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+}
@@ -13,20 +13,25 @@ public interface InvestmentApiService {
     /**
      * Création d'un nouvel investissement
      */
+    @Authenticated
     @POST("api/investments/")
-    Call<Investment> createInvestment(@Header("Authorization") String token, @Body InvestmentRequest request);
+    Call<Investment> createInvestment(@Body InvestmentRequest request);
     
     /**
      * Récupération de l'historique des investissements de l'utilisateur
+     * Avec updatedSince (updated_at en millisecondes, inclus), seuls les investissements modifiés depuis sont
+     * renvoyés, y compris les investissements supprimés (deleted = true) ; paramètre omis lorsqu'il est nul
      */
+    @Authenticated
     @GET("api/investments/")
-    Call<List<Investment>> getUserInvestments(@Header("Authorization") String token);
+    Call<List<Investment>> getUserInvestments(@Query("updated_since") Long updatedSince);
     
     /**
      * Récupération des détails d'un investissement
      */
+    @Authenticated
     @GET("api/investments/{id}/")
-    Call<Investment> getInvestment(@Header("Authorization") String token, @Path("id") int investmentId);
+    Call<Investment> getInvestment(@Path("id") int investmentId);
     
     /**
      * Récupération des investissements pour un projet spécifique
@@ -37,9 +42,9 @@ public interface InvestmentApiService {
     /**
      * Confirmation de paiement Stripe
      */
+    @Authenticated
     @POST("api/investments/{id}/confirm-payment/")
     Call<PaymentConfirmationResponse> confirmPayment(
-        @Header("Authorization") String token,
         @Path("id") int investmentId,
         @Body PaymentConfirmationRequest request
     );
@@ -47,8 +52,9 @@ public interface InvestmentApiService {
     /**
      * Annulation d'un investissement (si autorisé)
      */
+    @Authenticated
     @POST("api/investments/{id}/cancel/")
-    Call<Void> cancelInvestment(@Header("Authorization") String token, @Path("id") int investmentId);
+    Call<Void> cancelInvestment(@Path("id") int investmentId);
     
     // Classes de requête et réponse
     class InvestmentRequest {
@@ -1,6 +1,7 @@
 package com.crowdfundpro.android.data.api;
 
 import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectStatus;
 import com.crowdfundpro.android.data.models.Category;
 import retrofit2.Call;
 import retrofit2.http.*;
@@ -8,68 +9,88 @@ import java.util.List;
 
 /**
  * Interface Retrofit pour les appels API de gestion des projets
+ * Les lectures publiques (@ConditionalGet) sont revalidées par ETag / Last-Modified
  */
 public interface ProjectApiService {
     
     /**
      * Récupération de la liste des projets avec pagination
+     * Avec updatedSince (updated_at en millisecondes, inclus), seuls les projets modifiés depuis sont renvoyés,
+     * y compris les projets supprimés (deleted = true) ; paramètre omis lorsqu'il est nul
      */
+    @ConditionalGet
     @GET("api/projects/")
     Call<ProjectListResponse> getProjects(
         @Query("page") int page,
         @Query("page_size") int pageSize,
         @Query("category") Integer categoryId,
         @Query("search") String searchQuery,
-        @Query("status") String status
+        @Query("status") ProjectStatus status,
+        @Query("updated_since") Long updatedSince
     );
     
+    /**
+     * Récupération de la page suivante à partir du lien next d'une réponse précédente
+     */
+    @ConditionalGet
+    @GET
+    Call<ProjectListResponse> getProjectsPage(@Url String pageUrl);
+    
     /**
      * Récupération des détails d'un projet
      */
+    @ConditionalGet
     @GET("api/projects/{id}/")
     Call<Project> getProject(@Path("id") int projectId);
     
     /**
      * Création d'un nouveau projet
      */
+    @Authenticated
     @POST("api/projects/")
-    Call<Project> createProject(@Header("Authorization") String token, @Body Project project);
+    Call<Project> createProject(@Body Project project);
     
     /**
      * Mise à jour d'un projet
      */
+    @Authenticated
     @PUT("api/projects/{id}/")
-    Call<Project> updateProject(@Header("Authorization") String token, @Path("id") int projectId, @Body Project project);
+    Call<Project> updateProject(@Path("id") int projectId, @Body Project project);
     
     /**
      * Suppression d'un projet
      */
+    @Authenticated
     @DELETE("api/projects/{id}/")
-    Call<Void> deleteProject(@Header("Authorization") String token, @Path("id") int projectId);
+    Call<Void> deleteProject(@Path("id") int projectId);
     
     /**
      * Récupération des catégories
      */
+    @ConditionalGet
     @GET("api/categories/")
     Call<List<Category>> getCategories();
     
     /**
      * Récupération des projets favoris de l'utilisateur
      */
+    @Authenticated
     @GET("api/projects/favorites/")
-    Call<List<Project>> getFavoriteProjects(@Header("Authorization") String token);
+    Call<List<Project>> getFavoriteProjects();
     
     /**
      * Ajout d'un projet aux favoris
      */
+    @Authenticated
     @POST("api/projects/{id}/favorite/")
-    Call<Void> addToFavorites(@Header("Authorization") String token, @Path("id") int projectId);
+    Call<Void> addToFavorites(@Path("id") int projectId);
     
     /**
      * Suppression d'un projet des favoris
      */
+    @Authenticated
     @DELETE("api/projects/{id}/favorite/")
-    Call<Void> removeFromFavorites(@Header("Authorization") String token, @Path("id") int projectId);
+    Call<Void> removeFromFavorites(@Path("id") int projectId);
     
     // Classes de réponse
     class ProjectListResponse {
@@ -0,0 +1,108 @@
+package com.crowdfundpro.android.data.api;
+
+import android.os.SystemClock;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import com.crowdfundpro.android.utils.TokenManager;
+import java.io.IOException;
+import java.util.function.Supplier;
+import okhttp3.Authenticator;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Rafraîchissement du token d'accès sur réponse 401, puis rejeu de la requête avec le nouveau token
+ * Les requêtes refusées en même temps attendent le premier rafraîchissement au lieu d'en lancer un chacune :
+ * un seul appel à refreshToken par token expiré, quel que soit le nombre de 401 simultanés
+ */
+public class TokenAuthenticator implements Authenticator {
+    
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String BEARER = "Bearer ";
+    
+    // Noms des métriques exposées dans PerformanceMetrics (chronomètre des rafraîchissements, compteurs)
+    public static final String METRIC_REFRESH = "auth.refresh";
+    public static final String METRIC_REFRESH_FAILED = "auth.refresh.failed";
+    public static final String METRIC_REPLAYED = "auth.replayed";
+    
+    private final TokenManager tokenManager;
+    private final Supplier<AuthApiService> authApiService;
+    
+    private final Object lock = new Object();
+    // Dernier token dont le rafraîchissement a échoué : les 401 suivants pour ce token ne relancent rien
+    private String failedToken;
+    
+    /**
+     * authApiService est résolu à la demande : le service utilise le client HTTP auquel l'authenticator est attaché
+     */
+    public TokenAuthenticator(TokenManager tokenManager, Supplier<AuthApiService> authApiService) {
+        this.tokenManager = tokenManager;
+        this.authApiService = authApiService;
+    }
+    
+    @Override
+    public Request authenticate(Route route, Response response) throws IOException {
+        String rejectedToken = bearerToken(response.request());
+        // Requête non authentifiée (connexion, rafraîchissement...) ou déjà rejouée une fois : rien à faire
+        if (rejectedToken == null || response.priorResponse() != null) return null;
+        
+        String token;
+        synchronized (lock) {
+            String current = tokenManager.getAccessToken();
+            if (current != null && !current.equals(rejectedToken)) {
+                // Token déjà rafraîchi par une autre requête pendant l'attente
+                token = current;
+            } else if (rejectedToken.equals(failedToken)) {
+                token = null;
+            } else {
+                token = refresh(rejectedToken);
+            }
+        }
+        if (token == null) return null;
+        
+        PerformanceMetrics.increment(METRIC_REPLAYED);
+        return response.request().newBuilder()
+            .header(HEADER_AUTHORIZATION, BEARER + token)
+            .build();
+    }
+    
+    /**
+     * Appel synchrone à refreshToken (sur le thread OkHttp de la requête refusée) et enregistrement du nouveau token,
+     * ainsi que du nouveau token de rafraîchissement si le serveur l'a renouvelé (rotation)
+     * Retourne null si le rafraîchissement est impossible : la réponse 401 est alors transmise à l'appelant
+     */
+    private String refresh(String rejectedToken) {
+        String refreshToken = tokenManager.getRefreshToken();
+        if (refreshToken == null) {
+            failedToken = rejectedToken;
+            return null;
+        }
+        
+        long start = SystemClock.elapsedRealtime();
+        try {
+            retrofit2.Response<AuthApiService.TokenResponse> response = authApiService.get()
+                .refreshToken(new AuthApiService.RefreshTokenRequest(refreshToken))
+                .execute();
+            AuthApiService.TokenResponse body = response.body();
+            if (response.isSuccessful() && body != null && body.getAccessToken() != null) {
+                tokenManager.saveAccessToken(body.getAccessToken());
+                if (body.getRefreshToken() != null) {
+                    tokenManager.saveRefreshToken(body.getRefreshToken());
+                }
+                return body.getAccessToken();
+            }
+            failedToken = rejectedToken;
+        } catch (IOException e) {
+            // Échec réseau : pas de mémorisation, la prochaine 401 retentera le rafraîchissement
+        } finally {
+            PerformanceMetrics.recordTime(METRIC_REFRESH, SystemClock.elapsedRealtime() - start);
+        }
+        PerformanceMetrics.increment(METRIC_REFRESH_FAILED);
+        return null;
+    }
+    
+    private static String bearerToken(Request request) {
+        String header = request.header(HEADER_AUTHORIZATION);
+        return header != null && header.startsWith(BEARER) ? header.substring(BEARER.length()) : null;
+    }
+}
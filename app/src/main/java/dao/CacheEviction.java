@@ -0,0 +1,220 @@
+package com.crowdfundpro.android.data.db;
+
+import android.database.Cursor;
+import android.os.SystemClock;
+import com.crowdfundpro.android.utils.AppExecutors;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * Politique de rétention du cache hors ligne : nombre maximal de lignes par table et âge maximal
+ * (updated_at, ou end_date pour les projets terminés)
+ * Les projets créés ou financés par l'utilisateur connecté, et ses propres investissements, ne sont jamais évincés ;
+ * les commentaires et investissements des projets évincés partent en cascade
+ * Les lignes à évincer d'une table sont choisies une seule fois par passe (requêtes appuyées sur les index
+ * updated_at), puis supprimées par lots, chacun dans sa propre transaction sur la file d'écriture, pour laisser
+ * passer les écritures en attente entre deux lots
+ * Les tables de synthèse suivent les suppressions (y compris en cascade) par leurs triggers : elles ne sont pas
+ * recontrôlées ici
+ */
+public class CacheEviction {
+    
+    // Nombre maximal de lignes conservées par table
+    static final int MAX_PROJECTS = 2000;
+    static final int MAX_INVESTMENTS = 5000;
+    static final int MAX_COMMENTS = 5000;
+    
+    // Âge maximal d'une ligne (depuis sa dernière mise à jour) et d'un projet terminé
+    static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(30);
+    static final long ENDED_PROJECT_MAX_AGE_MS = TimeUnit.DAYS.toMillis(7);
+    
+    // Lignes supprimées par transaction
+    static final int BATCH_SIZE = 200;
+    
+    // Intervalle minimal entre deux passes
+    static final long MIN_INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+    
+    private final CrowdfundProDatabase database;
+    private final AppExecutors executors;
+    private final ProjectIndex projectIndex;
+    private final IntSupplier currentUserId;
+    
+    private final Object lock = new Object();
+    private boolean running;
+    private long lastRunAt = -MIN_INTERVAL_MS;
+    
+    CacheEviction(CrowdfundProDatabase database, AppExecutors executors, ProjectIndex projectIndex,
+                  IntSupplier currentUserId) {
+        this.database = database;
+        this.executors = executors;
+        this.projectIndex = projectIndex;
+        this.currentUserId = currentUserId;
+    }
+    
+    /**
+     * Lancement d'une passe d'éviction en arrière-plan, sauf si une passe est en cours ou a eu lieu récemment
+     */
+    public void runIfDue() {
+        synchronized (lock) {
+            long now = SystemClock.elapsedRealtime();
+            if (running || now - lastRunAt < MIN_INTERVAL_MS) return;
+            running = true;
+            lastRunAt = now;
+        }
+        executors.diskWrite().execute(this::start);
+    }
+    
+    private void start() {
+        int userId = currentUserId.getAsInt();
+        if (userId < 0) {
+            // Utilisateur inconnu : impossible de protéger ses données, la passe est reportée
+            finish(null);
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        long staleBefore = now - MAX_AGE_MS;
+        long endedBefore = now - ENDED_PROJECT_MAX_AGE_MS;
+        ProjectDao projectDao = database.projectDao();
+        InvestmentDao investmentDao = database.investmentDao();
+        CommentDao commentDao = database.commentDao();
+        
+        // Projets d'abord : leurs investissements et commentaires sont supprimés avec eux
+        List<Table> tables = new ArrayList<>();
+        tables.add(new Table("projects", MAX_PROJECTS,
+            limit -> projectDao.getStaleProjectIds(userId, staleBefore, endedBefore, limit),
+            limit -> projectDao.getOldestEvictableProjectIds(userId, limit),
+            projectDao::countProjects,
+            ids -> {
+                // Un projet choisi en début de passe a pu être financé par l'utilisateur depuis
+                List<Integer> evictable = projectDao.getEvictableProjectIds(ids, userId);
+                projectDao.deleteProjectsByIds(evictable);
+                projectIndex.onProjectsDeleted(evictable);
+            }));
+        tables.add(new Table("investments", MAX_INVESTMENTS,
+            limit -> investmentDao.getStaleInvestmentIds(userId, staleBefore, limit),
+            limit -> investmentDao.getOldestEvictableInvestmentIds(userId, limit),
+            investmentDao::countInvestments,
+            investmentDao::deleteInvestmentsByIds));
+        tables.add(new Table("comments", MAX_COMMENTS,
+            limit -> commentDao.getStaleCommentIds(staleBefore, limit),
+            commentDao::getOldestCommentIds,
+            commentDao::countComments,
+            commentDao::deleteCommentsByIds));
+        
+        evictBatch(new Run(tables));
+    }
+    
+    /**
+     * Un lot de la table courante, puis le lot suivant dans une nouvelle tâche (table suivante si celle-ci est faite)
+     * Les candidats d'une table sont choisis à son premier lot ; les projets passent avant, leurs investissements
+     * et commentaires supprimés en cascade ne sont donc pas choisis
+     */
+    private void evictBatch(Run run) {
+        if (run.tableIndex == run.tables.size()) {
+            finish(run);
+            return;
+        }
+        
+        Table table = run.tables.get(run.tableIndex);
+        if (run.candidates == null) {
+            run.candidates = database.runInTransaction(table::candidates);
+            run.offset = 0;
+        }
+        if (run.offset < run.candidates.size()) {
+            List<Integer> batch = run.candidates.subList(run.offset,
+                Math.min(run.candidates.size(), run.offset + BATCH_SIZE));
+            database.runInTransaction(() -> table.delete.accept(batch));
+            run.offset += batch.size();
+            PerformanceMetrics.add("cache_eviction.rows." + table.name, batch.size());
+        }
+        if (run.offset == run.candidates.size()) {
+            run.tableIndex++;
+            run.candidates = null;
+        }
+        executors.diskWrite().execute(() -> evictBatch(run));
+    }
+    
+    private void finish(Run run) {
+        if (run != null) {
+            // Les pages libérées restent dans le fichier (liste libre) et sont réutilisées par les écritures suivantes
+            long reclaimedPages = Math.max(0, pragma("freelist_count") - run.freePagesBefore);
+            PerformanceMetrics.increment("cache_eviction.runs");
+            PerformanceMetrics.add("cache_eviction.bytes_reclaimed", reclaimedPages * run.pageSize);
+            PerformanceMetrics.recordTime("cache_eviction.run", SystemClock.elapsedRealtime() - run.startedAt);
+        }
+        synchronized (lock) {
+            running = false;
+        }
+    }
+    
+    private long pragma(String name) {
+        try (Cursor cursor = database.getOpenHelper().getWritableDatabase().query("PRAGMA " + name)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+    
+    /**
+     * Passe en cours : tables restantes, candidats de la table courante et état du fichier au départ
+     */
+    private class Run {
+        final List<Table> tables;
+        final long startedAt = SystemClock.elapsedRealtime();
+        final long pageSize = pragma("page_size");
+        final long freePagesBefore = pragma("freelist_count");
+        int tableIndex;
+        List<Integer> candidates;
+        int offset;
+        
+        Run(List<Table> tables) {
+            this.tables = tables;
+        }
+    }
+    
+    /**
+     * Règles d'éviction d'une table : lignes périmées d'abord, puis les plus anciennes au-delà du maximum
+     */
+    private static final class Table {
+        final String name;
+        final int maxRows;
+        final IntFunction<List<Integer>> staleIds;
+        final IntFunction<List<Integer>> oldestIds;
+        final IntSupplier count;
+        final Consumer<List<Integer>> delete;
+        
+        Table(String name, int maxRows, IntFunction<List<Integer>> staleIds, IntFunction<List<Integer>> oldestIds,
+              IntSupplier count, Consumer<List<Integer>> delete) {
+            this.name = name;
+            this.maxRows = maxRows;
+            this.staleIds = staleIds;
+            this.oldestIds = oldestIds;
+            this.count = count;
+            this.delete = delete;
+        }
+        
+        /**
+         * Lignes à évincer, les plus anciennes d'abord : toutes les lignes périmées, puis les plus anciennes
+         * restantes jusqu'à revenir au maximum (liste vide quand la table est conforme)
+         */
+        List<Integer> candidates() {
+            int rows = count.getAsInt();
+            Set<Integer> ids = new LinkedHashSet<>(staleIds.apply(rows));
+            int excess = rows - ids.size() - maxRows;
+            if (excess > 0) {
+                // Les lignes périmées peuvent figurer parmi les plus anciennes : autant de lignes en plus
+                for (int id : oldestIds.apply(excess + ids.size())) {
+                    if (excess == 0) break;
+                    if (ids.add(id)) excess--;
+                }
+            }
+            return new ArrayList<>(ids);
+        }
+    }
+}
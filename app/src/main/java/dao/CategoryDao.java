@@ -2,12 +2,16 @@ package com.crowdfundpro.android.data.db;
 
 import androidx.room.Dao;
 import androidx.room.Delete;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 import com.crowdfundpro.android.data.models.Category;
+import io.reactivex.rxjava3.core.Flowable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO (Data Access Object) pour les opérations sur les catégories
@@ -16,16 +20,49 @@ import java.util.List;
 public interface CategoryDao {
     
     /**
-     * Insertion d'une catégorie
+     * Insertion ou mise à jour d'une catégorie
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertCategory(Category category);
+    @Upsert
+    void upsertCategory(Category category);
     
     /**
-     * Insertion de plusieurs catégories
+     * Insertion ou mise à jour de plusieurs catégories (pas de updated_at : toujours écrites)
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertCategories(List<Category> categories);
+    @Upsert
+    void upsertCategories(List<Category> categories);
+    
+    /**
+     * Remplacement de la liste complète des catégories : écriture des seules catégories nouvelles ou modifiées,
+     * suppression de celles qui n'y figurent plus
+     * Retourne le nombre de lignes écrites ou supprimées
+     */
+    @Transaction
+    default int replaceCategories(List<Category> categories) {
+        Map<Integer, Category> cached = new HashMap<>();
+        for (Category category : getAllCategories()) {
+            cached.put(category.getId(), category);
+        }
+        List<Category> changed = new ArrayList<>();
+        for (Category category : categories) {
+            Category previous = cached.remove(category.getId());
+            if (previous == null || !previous.hasSameContent(category)) {
+                changed.add(category);
+            }
+        }
+        if (!changed.isEmpty()) {
+            upsertCategories(changed);
+        }
+        if (!cached.isEmpty()) {
+            deleteCategoriesByIds(new ArrayList<>(cached.keySet()));
+        }
+        return changed.size() + cached.size();
+    }
+    
+    /**
+     * Suppression de catégories par ID
+     */
+    @Query("DELETE FROM categories WHERE id IN (:categoryIds)")
+    void deleteCategoriesByIds(List<Integer> categoryIds);
     
     /**
      * Mise à jour d'une catégorie
@@ -45,6 +82,12 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories ORDER BY name ASC")
     List<Category> getAllCategories();
     
+    /**
+     * Observation de toutes les catégories (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM categories ORDER BY name ASC")
+    Flowable<List<Category>> observeAllCategories();
+    
     /**
      * Récupération d'une catégorie par ID
      */
@@ -0,0 +1,49 @@
+package com.crowdfundpro.android.data.db;
+
+import com.crowdfundpro.android.data.models.RowVersion;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sélection des lignes à écrire lors d'un upsert : on ignore celles déjà en cache avec le même updated_at
+ */
+final class ChangedRows {
+    
+    // Nombre de paramètres par requête IN (limite SQLite de 999 variables sur les anciennes versions)
+    private static final int CHUNK_SIZE = 500;
+    
+    private ChangedRows() {}
+    
+    /**
+     * Lignes nouvelles ou dont la version diffère de celle en cache
+     */
+    static <T> List<T> filter(List<T> rows, ToIntFunction<T> id, ToLongFunction<T> updatedAt,
+                              Function<List<Integer>, List<RowVersion>> cachedVersions) {
+        Map<Integer, Long> cached = new HashMap<>();
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<Integer> ids = new ArrayList<>();
+            for (T row : rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE))) {
+                ids.add(id.applyAsInt(row));
+            }
+            for (RowVersion version : cachedVersions.apply(ids)) {
+                cached.put(version.getId(), version.getUpdatedAt());
+            }
+        }
+        
+        // Sans date de modification (0), on ne peut rien conclure : la ligne est écrite
+        List<T> changed = new ArrayList<>();
+        for (T row : rows) {
+            long rowUpdatedAt = updatedAt.applyAsLong(row);
+            Long cachedUpdatedAt = cached.get(id.applyAsInt(row));
+            if (rowUpdatedAt <= 0 || cachedUpdatedAt == null || cachedUpdatedAt != rowUpdatedAt) {
+                changed.add(row);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,97 @@
+package com.crowdfundpro.android.data.db;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Upsert;
+import com.crowdfundpro.android.data.models.Comment;
+import com.crowdfundpro.android.data.models.RowVersion;
+import io.reactivex.rxjava3.core.Flowable;
+import java.util.List;
+
+/**
+ * DAO (Data Access Object) pour les opérations sur les commentaires
+ */
+@Dao
+public interface CommentDao {
+    
+    /**
+     * Insertion ou mise à jour d'un commentaire (UPDATE si la ligne existe : pas de suppression en cascade)
+     */
+    @Upsert
+    void upsertComment(Comment comment);
+    
+    /**
+     * Insertion ou mise à jour de plusieurs commentaires
+     */
+    @Upsert
+    void upsertComments(List<Comment> comments);
+    
+    /**
+     * Versions en cache (id, updated_at) d'une liste de commentaires
+     */
+    @Query("SELECT id, updatedAt AS updated_at FROM comments WHERE id IN (:ids)")
+    List<RowVersion> getCommentVersions(List<Integer> ids);
+    
+    /**
+     * Upsert des seuls commentaires nouveaux ou modifiés (updated_at différent de celui en cache)
+     * Retourne le nombre de lignes écrites ; les autres sont ignorées sans aucune écriture
+     */
+    @Transaction
+    default int upsertChangedComments(List<Comment> comments) {
+        List<Comment> changed = ChangedRows.filter(comments,
+            Comment::getId, Comment::getUpdatedAt, this::getCommentVersions);
+        if (!changed.isEmpty()) {
+            upsertComments(changed);
+        }
+        return changed.size();
+    }
+    
+    /**
+     * Récupération des commentaires visibles d'un projet
+     */
+    @Query("SELECT * FROM comments WHERE projectId = :projectId AND isDeleted = 0 ORDER BY createdAt ASC")
+    List<Comment> getCommentsByProject(int projectId);
+    
+    /**
+     * Observation des commentaires visibles d'un projet (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM comments WHERE projectId = :projectId AND isDeleted = 0 ORDER BY createdAt ASC")
+    Flowable<List<Comment>> observeCommentsByProject(int projectId);
+    
+    /**
+     * Marquage d'un commentaire comme supprimé
+     */
+    @Query("UPDATE comments SET isDeleted = 1 WHERE id = :commentId")
+    void markCommentAsDeleted(int commentId);
+    
+    /**
+     * Commentaires non mis à jour depuis staleBefore, les plus anciens d'abord
+     */
+    @Query("SELECT id FROM comments WHERE updatedAt < :staleBefore ORDER BY updatedAt LIMIT :limit")
+    List<Integer> getStaleCommentIds(long staleBefore, int limit);
+    
+    /**
+     * Commentaires les moins récemment mis à jour
+     */
+    @Query("SELECT id FROM comments ORDER BY updatedAt LIMIT :limit")
+    List<Integer> getOldestCommentIds(int limit);
+    
+    /**
+     * Nombre total de commentaires en cache
+     */
+    @Query("SELECT COUNT(*) FROM comments")
+    int countComments();
+    
+    /**
+     * Suppression de commentaires par ID
+     */
+    @Query("DELETE FROM comments WHERE id IN (:commentIds)")
+    void deleteCommentsByIds(List<Integer> commentIds);
+    
+    /**
+     * Suppression de tous les commentaires
+     */
+    @Query("DELETE FROM comments")
+    void deleteAllComments();
+}
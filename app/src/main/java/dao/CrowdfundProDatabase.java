@@ -3,29 +3,45 @@ package com.crowdfundpro.android.data.db;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
 import android.content.Context;
 import com.crowdfundpro.android.data.models.User;
 import com.crowdfundpro.android.data.models.Project;
 import com.crowdfundpro.android.data.models.Investment;
 import com.crowdfundpro.android.data.models.Category;
+import com.crowdfundpro.android.data.models.Comment;
+import com.crowdfundpro.android.data.models.InvestmentDailyTotal;
+import com.crowdfundpro.android.data.models.ProjectFts;
+import com.crowdfundpro.android.data.models.ProjectFundingTotal;
+import com.crowdfundpro.android.data.models.SyncState;
+import com.crowdfundpro.android.data.models.UserFundingTotal;
 
 /**
  * Base de données Room pour CrowdfundPro
  */
 @Database(
-    entities = {User.class, Project.class, Investment.class, Category.class},
-    version = 1,
-    exportSchema = false
+    entities = {User.class, Project.class, Investment.class, Category.class, Comment.class,
+                ProjectFts.class, InvestmentDailyTotal.class, ProjectFundingTotal.class, UserFundingTotal.class,
+                SyncState.class},
+    version = 9,
+    exportSchema = true
 )
+@TypeConverters(StatusConverters.class)
 public abstract class CrowdfundProDatabase extends RoomDatabase {
     
     private static volatile CrowdfundProDatabase INSTANCE;
     
+    // Base pré-remplie (catégories) générée au build à partir du schéma exporté de la version déclarée ci-dessus
+    // (empreinte contrôlée contre le code compilé), copiée à l'installation
+    static final String SEED_ASSET = "databases/crowdfundpro_seed.db";
+    
     // DAOs abstraits
     public abstract UserDao userDao();
     public abstract ProjectDao projectDao();
     public abstract InvestmentDao investmentDao();
     public abstract CategoryDao categoryDao();
+    public abstract CommentDao commentDao();
+    public abstract SyncStateDao syncStateDao();
     
     /**
      * Singleton pour obtenir l'instance de la base de données
@@ -39,7 +55,12 @@ public abstract class CrowdfundProDatabase extends RoomDatabase {
                         CrowdfundProDatabase.class,
                         "crowdfundpro_database"
                     )
-                    .fallbackToDestructiveMigration() // Pour le développement uniquement
+                    .createFromAsset(SEED_ASSET)
+                    .addCallback(DatabaseTriggers.callback())
+                    // Migrations écrites à la main pour chaque version : le cache survit aux mises à jour
+                    .addMigrations(DatabaseMigrations.all())
+                    // Retour à une version antérieure (builds de développement) : le cache est reconstruit
+                    .fallbackToDestructiveMigrationOnDowngrade()
                     .build();
                 }
             }
@@ -47,6 +68,31 @@ public abstract class CrowdfundProDatabase extends RoomDatabase {
         return INSTANCE;
     }
     
+    /**
+     * Contrôle de la synthèse journalière contre un recalcul complet, et reconstruction si elle a dérivé
+     * Retourne le nombre de jours incohérents trouvés (à appeler hors du thread principal)
+     */
+    public int verifyInvestmentDailyTotals() {
+        int mismatches = investmentDao().countInvestmentDailyTotalMismatches();
+        if (mismatches > 0) {
+            runInTransaction(() -> DatabaseTriggers.rebuildInvestmentDailyTotals(getOpenHelper().getWritableDatabase()));
+        }
+        return mismatches;
+    }
+    
+    /**
+     * Contrôle des tables de totaux contre un recalcul complet, et reconstruction si elles ont dérivé
+     * Retourne le nombre de lignes incohérentes trouvées (à appeler hors du thread principal)
+     */
+    public int verifyFundingTotals() {
+        int mismatches = investmentDao().countProjectFundingTotalMismatches()
+            + investmentDao().countUserFundingTotalMismatches();
+        if (mismatches > 0) {
+            runInTransaction(() -> DatabaseTriggers.rebuildFundingTotals(getOpenHelper().getWritableDatabase()));
+        }
+        return mismatches;
+    }
+    
     /**
      * Méthode pour fermer la base de données (utile pour les tests)
      */
@@ -0,0 +1,252 @@
+package com.crowdfundpro.android.data.db;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+
+/**
+ * Migrations du schéma de la base locale, une par version : le cache est conservé lors des mises à jour
+ * Chaque migration reproduit le schéma exporté de sa version (app/schemas) et ne doit plus être modifiée
+ * une fois publiée : les requêtes y sont figées avec les valeurs de l'époque (statuts en texte avant la version 8)
+ */
+public final class DatabaseMigrations {
+    
+    public static final String METRIC_MIGRATIONS = "db.migrations";
+    
+    private DatabaseMigrations() {}
+    
+    /**
+     * Toutes les migrations, à passer à Room.databaseBuilder().addMigrations()
+     */
+    public static Migration[] all() {
+        return new Migration[] {
+            MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8,
+            MIGRATION_8_9
+        };
+    }
+    
+    /**
+     * Migration chronométrée : durée de chaque étape (db.migration.<de>_<vers>) et nombre d'étapes exécutées
+     * depuis le démarrage du processus (db.migrations, non nul au premier lancement après une mise à jour)
+     */
+    private abstract static class TimedMigration extends Migration {
+        
+        TimedMigration(int startVersion, int endVersion) {
+            super(startVersion, endVersion);
+        }
+        
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            long start = SystemClock.elapsedRealtime();
+            apply(db);
+            PerformanceMetrics.increment(METRIC_MIGRATIONS);
+            PerformanceMetrics.recordTime("db.migration." + startVersion + "_" + endVersion,
+                SystemClock.elapsedRealtime() - start);
+        }
+        
+        abstract void apply(SupportSQLiteDatabase db);
+    }
+    
+    /**
+     * Version 2 : table des commentaires
+     */
+    public static final Migration MIGRATION_1_2 = new TimedMigration(1, 2) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `comments` (`id` INTEGER NOT NULL, `projectId` INTEGER NOT NULL, "
+                + "`userId` INTEGER NOT NULL, `content` TEXT, `createdAt` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL, "
+                + "`isReported` INTEGER NOT NULL, `isDeleted` INTEGER NOT NULL, `userName` TEXT, `userAvatarUrl` TEXT, "
+                + "PRIMARY KEY(`id`), "
+                + "FOREIGN KEY(`userId`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                + "FOREIGN KEY(`projectId`) REFERENCES `projects`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_comments_userId` ON `comments` (`userId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_comments_projectId` ON `comments` (`projectId`)");
+        }
+    };
+    
+    /**
+     * Version 3 : index composites des projets et des investissements
+     */
+    public static final Migration MIGRATION_2_3 = new TimedMigration(2, 3) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            createProjectIndices(db);
+            createInvestmentIndices(db);
+        }
+    };
+    
+    /**
+     * Version 4 : index plein texte des projets, rempli à partir des projets en cache
+     */
+    public static final Migration MIGRATION_3_4 = new TimedMigration(3, 4) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `projects_fts` USING FTS4(`title` TEXT, `description` TEXT, "
+                + "tokenize=unicode61, content=`projects`)");
+            createProjectsFtsTriggers(db);
+            db.execSQL("INSERT INTO projects_fts(projects_fts) VALUES('rebuild')");
+        }
+    };
+    
+    /**
+     * Version 5 : synthèse journalière des investissements réussis, calculée à partir de l'historique en cache
+     * (les triggers qui la maintiennent sont créés à l'ouverture de la base)
+     */
+    public static final Migration MIGRATION_4_5 = new TimedMigration(4, 5) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `investment_daily_totals` (`user_id` INTEGER NOT NULL, "
+                + "`day` INTEGER NOT NULL, `total_amount` REAL NOT NULL, `investment_count` INTEGER NOT NULL, "
+                + "PRIMARY KEY(`user_id`, `day`))");
+            db.execSQL("INSERT INTO investment_daily_totals (user_id, day, total_amount, investment_count) "
+                + "SELECT user_id, created_at / 86400000, SUM(amount), COUNT(*) FROM investments "
+                + "WHERE status = 'COMPLETED' GROUP BY user_id, created_at / 86400000");
+        }
+    };
+    
+    /**
+     * Version 6 : totaux de financement par projet et par utilisateur, calculés à partir de l'historique en cache
+     */
+    public static final Migration MIGRATION_5_6 = new TimedMigration(5, 6) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            for (String[] table : new String[][] {{"project_funding_totals", "project_id"}, {"user_funding_totals", "user_id"}}) {
+                db.execSQL("CREATE TABLE IF NOT EXISTS `" + table[0] + "` (`" + table[1] + "` INTEGER NOT NULL, "
+                    + "`investment_count` INTEGER NOT NULL, `completed_amount` REAL NOT NULL, "
+                    + "`pending_amount` REAL NOT NULL, PRIMARY KEY(`" + table[1] + "`))");
+                db.execSQL("INSERT INTO " + table[0] + " (" + table[1] + ", investment_count, completed_amount, pending_amount) "
+                    + "SELECT " + table[1] + ", COUNT(*), "
+                    + "SUM(CASE WHEN status = 'COMPLETED' THEN amount ELSE 0 END), "
+                    + "SUM(CASE WHEN status = 'PENDING' THEN amount ELSE 0 END) "
+                    + "FROM investments GROUP BY " + table[1]);
+            }
+        }
+    };
+    
+    /**
+     * Version 7 : points de reprise de la synchronisation différentielle
+     * Table vide : la première synchronisation est complète, les lignes inchangées ne sont pas réécrites
+     */
+    public static final Migration MIGRATION_6_7 = new TimedMigration(6, 7) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_state` (`entity` TEXT NOT NULL, "
+                + "`high_water_mark` INTEGER NOT NULL, `full_sync_bytes` INTEGER NOT NULL, "
+                + "`last_sync_at` INTEGER NOT NULL, PRIMARY KEY(`entity`))");
+        }
+    };
+    
+    /**
+     * Version 8 : colonnes status en INTEGER (codes de ProjectStatus / InvestmentStatus) au lieu de TEXT
+     * Un statut de projet non reconnu devient UNKNOWN ; NULL reste la marque des ébauches
+     * SQLite ne permet pas de changer le type d'une colonne : les tables sont recréées puis recopiées
+     * (les identifiants, donc les rowid de l'index plein texte, sont conservés)
+     */
+    public static final Migration MIGRATION_7_8 = new TimedMigration(7, 8) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `projects_new` (`id` INTEGER NOT NULL, `title` TEXT, "
+                + "`description` TEXT, `target_amount` REAL NOT NULL, `current_amount` REAL NOT NULL, "
+                + "`status` INTEGER, `creator_id` INTEGER NOT NULL, `category_id` INTEGER NOT NULL, "
+                + "`image_url` TEXT, `created_at` INTEGER NOT NULL, `end_date` INTEGER NOT NULL, "
+                + "`updated_at` INTEGER NOT NULL, PRIMARY KEY(`id`), "
+                + "FOREIGN KEY(`creator_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO projects_new (id, title, description, target_amount, current_amount, status, "
+                + "creator_id, category_id, image_url, created_at, end_date, updated_at) "
+                + "SELECT id, title, description, target_amount, current_amount, CASE "
+                + "WHEN status IS NULL THEN NULL "
+                + "WHEN status = 'ACTIVE' THEN " + ProjectStatus.Code.ACTIVE + " "
+                + "WHEN status = 'COMPLETED' THEN " + ProjectStatus.Code.COMPLETED + " "
+                + "WHEN status = 'CANCELLED' THEN " + ProjectStatus.Code.CANCELLED + " "
+                + "ELSE " + ProjectStatus.Code.UNKNOWN + " END, "
+                + "creator_id, category_id, image_url, created_at, end_date, updated_at FROM projects");
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `investments_new` (`id` INTEGER NOT NULL, "
+                + "`project_id` INTEGER NOT NULL, `user_id` INTEGER NOT NULL, `amount` REAL NOT NULL, "
+                + "`status` INTEGER, `payment_method` TEXT, `transaction_id` TEXT, `created_at` INTEGER NOT NULL, "
+                + "`updated_at` INTEGER NOT NULL, PRIMARY KEY(`id`), "
+                + "FOREIGN KEY(`project_id`) REFERENCES `projects`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                + "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO investments_new (id, project_id, user_id, amount, status, payment_method, "
+                + "transaction_id, created_at, updated_at) "
+                + "SELECT id, project_id, user_id, amount, CASE status "
+                + "WHEN 'PENDING' THEN " + InvestmentStatus.Code.PENDING + " "
+                + "WHEN 'COMPLETED' THEN " + InvestmentStatus.Code.COMPLETED + " "
+                + "WHEN 'FAILED' THEN " + InvestmentStatus.Code.FAILED + " "
+                + "WHEN 'REFUNDED' THEN " + InvestmentStatus.Code.REFUNDED + " "
+                + "WHEN 'CANCELLED' THEN " + InvestmentStatus.Code.CANCELLED + " "
+                + "ELSE NULL END, "
+                + "payment_method, transaction_id, created_at, updated_at FROM investments");
+            
+            // Les index et triggers des anciennes tables disparaissent avec elles
+            db.execSQL("DROP TABLE investments");
+            db.execSQL("DROP TABLE projects");
+            db.execSQL("ALTER TABLE projects_new RENAME TO projects");
+            db.execSQL("ALTER TABLE investments_new RENAME TO investments");
+            
+            createProjectIndices(db);
+            createInvestmentIndices(db);
+            createProjectsFtsTriggers(db);
+            DatabaseTriggers.createTriggers(db);
+        }
+    };
+    
+    /**
+     * Version 9 : index sur la date de mise à jour, pour l'éviction du cache (lignes les moins récemment
+     * mises à jour, sans parcours complet ni tri), et commentaires d'un projet indexés dans leur ordre d'affichage
+     */
+    public static final Migration MIGRATION_8_9 = new TimedMigration(8, 9) {
+        @Override
+        void apply(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_updated_at` ON `projects` (`updated_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_updated_at` ON `investments` (`updated_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_comments_updatedAt` ON `comments` (`updatedAt`)");
+            db.execSQL("DROP INDEX IF EXISTS `index_comments_projectId`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_comments_projectId_createdAt` ON `comments` (`projectId`, `createdAt`)");
+        }
+    };
+    
+    /**
+     * Index des projets (voir les @Index de Project)
+     */
+    private static void createProjectIndices(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_status_end_date` ON `projects` (`status`, `end_date`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_status_created_at` ON `projects` (`status`, `created_at`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_category_id_created_at` ON `projects` (`category_id`, `created_at`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_creator_id_created_at` ON `projects` (`creator_id`, `created_at`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_current_amount` ON `projects` (`current_amount`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_created_at` ON `projects` (`created_at`)");
+    }
+    
+    /**
+     * Index des investissements (voir les @Index de Investment)
+     */
+    private static void createInvestmentIndices(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_user_id_created_at` ON `investments` (`user_id`, `created_at`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_project_id_created_at` ON `investments` (`project_id`, `created_at`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_user_id_status_amount` ON `investments` (`user_id`, `status`, `amount`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_project_id_status_amount` ON `investments` (`project_id`, `status`, `amount`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_status_created_at` ON `investments` (`status`, `created_at`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_investments_user_id_project_id_created_at` ON `investments` (`user_id`, `project_id`, `created_at`)");
+    }
+    
+    /**
+     * Triggers générés par Room pour synchroniser projects_fts (table à contenu externe) avec projects
+     */
+    private static void createProjectsFtsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_projects_fts_BEFORE_UPDATE "
+            + "BEFORE UPDATE ON `projects` BEGIN DELETE FROM `projects_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_projects_fts_BEFORE_DELETE "
+            + "BEFORE DELETE ON `projects` BEGIN DELETE FROM `projects_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_projects_fts_AFTER_UPDATE "
+            + "AFTER UPDATE ON `projects` BEGIN INSERT INTO `projects_fts`(`docid`, `title`, `description`) "
+            + "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_projects_fts_AFTER_INSERT "
+            + "AFTER INSERT ON `projects` BEGIN INSERT INTO `projects_fts`(`docid`, `title`, `description`) "
+            + "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+    }
+}
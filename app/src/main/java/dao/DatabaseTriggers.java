@@ -0,0 +1,157 @@
+package com.crowdfundpro.android.data.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+
+/**
+ * Triggers SQL qui maintiennent les tables de synthèse à jour à chaque écriture dans les tables sources
+ * Les agrégats sont ainsi mis à jour de façon incrémentale, sans relire l'historique
+ */
+public final class DatabaseTriggers {
+    
+    // Les lignes de synthèse sont créées par INSERT ... WHERE NOT EXISTS et non par INSERT OR IGNORE :
+    // dans un trigger, la clause de conflit de l'instruction externe (un INSERT OR REPLACE) l'emporte
+    // et remettrait la ligne existante à zéro
+    
+    // Statuts stockés sous forme d'entiers (voir InvestmentStatus)
+    private static final int COMPLETED = InvestmentStatus.Code.COMPLETED;
+    private static final int PENDING = InvestmentStatus.Code.PENDING;
+    
+    // Jour UTC (depuis 1970) d'un horodatage en millisecondes
+    private static final String NEW_DAY = "(NEW.created_at / 86400000)";
+    private static final String OLD_DAY = "(OLD.created_at / 86400000)";
+    
+    private static final String[] INVESTMENT_DAILY_TOTALS = {
+        // Nouvel investissement réussi : ligne du jour créée au besoin puis incrémentée
+        "CREATE TRIGGER IF NOT EXISTS investment_daily_totals_insert AFTER INSERT ON investments "
+            + "WHEN NEW.status = " + COMPLETED + " BEGIN "
+            + "INSERT INTO investment_daily_totals (user_id, day, total_amount, investment_count) "
+            + "SELECT NEW.user_id, " + NEW_DAY + ", 0, 0 WHERE NOT EXISTS (SELECT 1 FROM investment_daily_totals "
+            + "WHERE user_id = NEW.user_id AND day = " + NEW_DAY + "); "
+            + "UPDATE investment_daily_totals SET total_amount = total_amount + NEW.amount, "
+            + "investment_count = investment_count + 1 "
+            + "WHERE user_id = NEW.user_id AND day = " + NEW_DAY + "; "
+            + "END",
+        // Suppression (y compris le DELETE implicite d'un INSERT OR REPLACE, voir onOpen)
+        "CREATE TRIGGER IF NOT EXISTS investment_daily_totals_delete AFTER DELETE ON investments "
+            + "WHEN OLD.status = " + COMPLETED + " BEGIN "
+            + "UPDATE investment_daily_totals SET total_amount = total_amount - OLD.amount, "
+            + "investment_count = investment_count - 1 "
+            + "WHERE user_id = OLD.user_id AND day = " + OLD_DAY + "; "
+            + "DELETE FROM investment_daily_totals "
+            + "WHERE user_id = OLD.user_id AND day = " + OLD_DAY + " AND investment_count <= 0; "
+            + "END",
+        // Mise à jour : retrait de l'ancienne contribution puis ajout de la nouvelle
+        "CREATE TRIGGER IF NOT EXISTS investment_daily_totals_update_old "
+            + "AFTER UPDATE OF status, amount, user_id, created_at ON investments "
+            + "WHEN OLD.status = " + COMPLETED + " BEGIN "
+            + "UPDATE investment_daily_totals SET total_amount = total_amount - OLD.amount, "
+            + "investment_count = investment_count - 1 "
+            + "WHERE user_id = OLD.user_id AND day = " + OLD_DAY + "; "
+            + "DELETE FROM investment_daily_totals "
+            + "WHERE user_id = OLD.user_id AND day = " + OLD_DAY + " AND investment_count <= 0; "
+            + "END",
+        "CREATE TRIGGER IF NOT EXISTS investment_daily_totals_update_new "
+            + "AFTER UPDATE OF status, amount, user_id, created_at ON investments "
+            + "WHEN NEW.status = " + COMPLETED + " BEGIN "
+            + "INSERT INTO investment_daily_totals (user_id, day, total_amount, investment_count) "
+            + "SELECT NEW.user_id, " + NEW_DAY + ", 0, 0 WHERE NOT EXISTS (SELECT 1 FROM investment_daily_totals "
+            + "WHERE user_id = NEW.user_id AND day = " + NEW_DAY + "); "
+            + "UPDATE investment_daily_totals SET total_amount = total_amount + NEW.amount, "
+            + "investment_count = investment_count + 1 "
+            + "WHERE user_id = NEW.user_id AND day = " + NEW_DAY + "; "
+            + "END"
+    };
+    
+    // Totaux par projet et par utilisateur (nombre, montant réussi, montant en attente)
+    private static final String[] PROJECT_FUNDING_TOTALS = fundingTotalsTriggers("project_funding_totals", "project_id");
+    private static final String[] USER_FUNDING_TOTALS = fundingTotalsTriggers("user_funding_totals", "user_id");
+    
+    private DatabaseTriggers() {}
+    
+    /**
+     * Triggers d'une table de totaux indexée par la colonne key de investments
+     * Une ligne contribue toujours au nombre, et à l'un des deux montants selon son statut
+     */
+    private static String[] fundingTotalsTriggers(String table, String key) {
+        String add = "INSERT INTO " + table + " (" + key + ", investment_count, completed_amount, pending_amount) "
+            + "SELECT NEW." + key + ", 0, 0, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM " + table + " WHERE " + key + " = NEW." + key + "); "
+            + "UPDATE " + table + " SET investment_count = investment_count + 1, "
+            + "completed_amount = completed_amount + (CASE WHEN NEW.status = " + COMPLETED + " THEN NEW.amount ELSE 0 END), "
+            + "pending_amount = pending_amount + (CASE WHEN NEW.status = " + PENDING + " THEN NEW.amount ELSE 0 END) "
+            + "WHERE " + key + " = NEW." + key + "; ";
+        String remove = "UPDATE " + table + " SET investment_count = investment_count - 1, "
+            + "completed_amount = completed_amount - (CASE WHEN OLD.status = " + COMPLETED + " THEN OLD.amount ELSE 0 END), "
+            + "pending_amount = pending_amount - (CASE WHEN OLD.status = " + PENDING + " THEN OLD.amount ELSE 0 END) "
+            + "WHERE " + key + " = OLD." + key + "; "
+            + "DELETE FROM " + table + " WHERE " + key + " = OLD." + key + " AND investment_count <= 0; ";
+        return new String[] {
+            "CREATE TRIGGER IF NOT EXISTS " + table + "_insert AFTER INSERT ON investments BEGIN " + add + "END",
+            "CREATE TRIGGER IF NOT EXISTS " + table + "_delete AFTER DELETE ON investments BEGIN " + remove + "END",
+            "CREATE TRIGGER IF NOT EXISTS " + table + "_update "
+                + "AFTER UPDATE OF status, amount, " + key + " ON investments BEGIN " + remove + add + "END"
+        };
+    }
+    
+    /**
+     * Callback Room : création des triggers et réglages de connexion
+     */
+    public static RoomDatabase.Callback callback() {
+        return new RoomDatabase.Callback() {
+            @Override
+            public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                createTriggers(db);
+            }
+            
+            @Override
+            public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                // Une écriture en INSERT OR REPLACE supprime la ligne remplacée : sans cette option,
+                // cette suppression ne déclenche pas les triggers DELETE et la ligne serait comptée deux fois
+                db.execSQL("PRAGMA recursive_triggers = ON");
+                createTriggers(db);
+            }
+        };
+    }
+    
+    /**
+     * Création des triggers (sans effet s'ils existent déjà)
+     */
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        for (String[] triggers : new String[][] {INVESTMENT_DAILY_TOTALS, PROJECT_FUNDING_TOTALS, USER_FUNDING_TOTALS}) {
+            for (String statement : triggers) {
+                db.execSQL(statement);
+            }
+        }
+    }
+    
+    /**
+     * Reconstruction complète de la synthèse journalière à partir de la table investments
+     * (après une migration ou si la synthèse est suspecte)
+     */
+    public static void rebuildInvestmentDailyTotals(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM investment_daily_totals");
+        db.execSQL("INSERT INTO investment_daily_totals (user_id, day, total_amount, investment_count) "
+            + "SELECT user_id, created_at / 86400000, SUM(amount), COUNT(*) FROM investments "
+            + "WHERE status = " + COMPLETED + " GROUP BY user_id, created_at / 86400000");
+    }
+    
+    /**
+     * Reconstruction complète des totaux par projet et par utilisateur à partir de la table investments
+     */
+    public static void rebuildFundingTotals(SupportSQLiteDatabase db) {
+        rebuildFundingTotals(db, "project_funding_totals", "project_id");
+        rebuildFundingTotals(db, "user_funding_totals", "user_id");
+    }
+    
+    private static void rebuildFundingTotals(SupportSQLiteDatabase db, String table, String key) {
+        db.execSQL("DELETE FROM " + table);
+        db.execSQL("INSERT INTO " + table + " (" + key + ", investment_count, completed_amount, pending_amount) "
+            + "SELECT " + key + ", COUNT(*), "
+            + "SUM(CASE WHEN status = " + COMPLETED + " THEN amount ELSE 0 END), "
+            + "SUM(CASE WHEN status = " + PENDING + " THEN amount ELSE 0 END) "
+            + "FROM investments GROUP BY " + key);
+    }
+}
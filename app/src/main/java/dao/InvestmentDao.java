@@ -2,11 +2,19 @@ package com.crowdfundpro.android.data.db;
 
 import androidx.room.Dao;
 import androidx.room.Delete;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentPeriodTotal;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.InvestmentStatusTotal;
+import com.crowdfundpro.android.data.models.InvestmentWithProject;
+import com.crowdfundpro.android.data.models.ProjectFundingTotal;
+import com.crowdfundpro.android.data.models.RowVersion;
+import com.crowdfundpro.android.data.models.UserFundingTotal;
+import io.reactivex.rxjava3.core.Flowable;
 import java.util.List;
 
 /**
@@ -16,16 +24,36 @@ import java.util.List;
 public interface InvestmentDao {
     
     /**
-     * Insertion d'un investissement
+     * Insertion ou mise à jour d'un investissement (UPDATE si la ligne existe : pas de suppression en cascade)
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertInvestment(Investment investment);
+    @Upsert
+    void upsertInvestment(Investment investment);
     
     /**
-     * Insertion de plusieurs investissements
+     * Insertion ou mise à jour de plusieurs investissements
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertInvestments(List<Investment> investments);
+    @Upsert
+    void upsertInvestments(List<Investment> investments);
+    
+    /**
+     * Versions en cache (id, updated_at) d'une liste d'investissements
+     */
+    @Query("SELECT id, updated_at FROM investments WHERE id IN (:ids)")
+    List<RowVersion> getInvestmentVersions(List<Integer> ids);
+    
+    /**
+     * Upsert des seuls investissements nouveaux ou modifiés (updated_at différent de celui en cache)
+     * Retourne le nombre de lignes écrites ; les autres sont ignorées sans aucune écriture
+     */
+    @Transaction
+    default int upsertChangedInvestments(List<Investment> investments) {
+        List<Investment> changed = ChangedRows.filter(investments,
+            Investment::getId, Investment::getUpdatedAt, this::getInvestmentVersions);
+        if (!changed.isEmpty()) {
+            upsertInvestments(changed);
+        }
+        return changed.size();
+    }
     
     /**
      * Mise à jour d'un investissement
@@ -39,6 +67,18 @@ public interface InvestmentDao {
     @Delete
     void deleteInvestment(Investment investment);
     
+    /**
+     * Suppression d'investissements par ID (tombstones de la synchronisation)
+     */
+    @Query("DELETE FROM investments WHERE id IN (:investmentIds)")
+    void deleteInvestmentsByIds(List<Integer> investmentIds);
+    
+    /**
+     * Présence d'au moins un investissement de l'utilisateur en cache
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM investments WHERE user_id = :userId)")
+    boolean hasInvestmentsForUser(int userId);
+    
     /**
      * Récupération de tous les investissements
      */
@@ -57,17 +97,49 @@ public interface InvestmentDao {
     @Query("SELECT * FROM investments WHERE user_id = :userId ORDER BY created_at DESC")
     List<Investment> getInvestmentsByUser(int userId);
     
+    /**
+     * Observation des investissements d'un utilisateur (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM investments WHERE user_id = :userId ORDER BY created_at DESC")
+    Flowable<List<Investment>> observeInvestmentsByUser(int userId);
+    
+    /**
+     * Observation des investissements d'un utilisateur avec le titre et l'image de leur projet
+     * Une seule requête : index (user_id, created_at) puis accès par clé primaire aux projets
+     */
+    @Query("SELECT i.id, i.project_id, i.user_id, i.amount, i.status, i.transaction_id, i.created_at, "
+        + "p.title AS project_title, p.image_url AS project_image_url "
+        + "FROM investments i LEFT JOIN projects p ON p.id = i.project_id "
+        + "WHERE i.user_id = :userId ORDER BY i.created_at DESC")
+    Flowable<List<InvestmentWithProject>> observeInvestmentsWithProjectByUser(int userId);
+    
+    /**
+     * Observation des investissements d'un projet avec le titre et l'image du projet
+     * Servie par l'index (project_id, created_at)
+     */
+    @Query("SELECT i.id, i.project_id, i.user_id, i.amount, i.status, i.transaction_id, i.created_at, "
+        + "p.title AS project_title, p.image_url AS project_image_url "
+        + "FROM investments i LEFT JOIN projects p ON p.id = i.project_id "
+        + "WHERE i.project_id = :projectId ORDER BY i.created_at DESC")
+    Flowable<List<InvestmentWithProject>> observeInvestmentsWithProjectByProject(int projectId);
+    
     /**
      * Récupération des investissements pour un projet
      */
     @Query("SELECT * FROM investments WHERE project_id = :projectId ORDER BY created_at DESC")
     List<Investment> getInvestmentsByProject(int projectId);
     
+    /**
+     * Observation des investissements pour un projet (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM investments WHERE project_id = :projectId ORDER BY created_at DESC")
+    Flowable<List<Investment>> observeInvestmentsByProject(int projectId);
+    
     /**
      * Récupération des investissements par statut
      */
     @Query("SELECT * FROM investments WHERE status = :status ORDER BY created_at DESC")
-    List<Investment> getInvestmentsByStatus(String status);
+    List<Investment> getInvestmentsByStatus(InvestmentStatus status);
     
     /**
      * Récupération des investissements d'un utilisateur pour un projet spécifique
@@ -76,17 +148,107 @@ public interface InvestmentDao {
     List<Investment> getUserInvestmentsForProject(int userId, int projectId);
     
     /**
-     * Calcul du montant total investi par un utilisateur
+     * Montant total investi par un utilisateur (lu dans la table de totaux, sans agrégation)
      */
-    @Query("SELECT SUM(amount) FROM investments WHERE user_id = :userId AND status = 'COMPLETED'")
+    @Query("SELECT COALESCE((SELECT completed_amount FROM user_funding_totals WHERE user_id = :userId), 0)")
     double getTotalInvestedByUser(int userId);
     
     /**
-     * Calcul du montant total collecté pour un projet
+     * Montant total collecté pour un projet (lu dans la table de totaux, sans agrégation)
      */
-    @Query("SELECT SUM(amount) FROM investments WHERE project_id = :projectId AND status = 'COMPLETED'")
+    @Query("SELECT COALESCE((SELECT completed_amount FROM project_funding_totals WHERE project_id = :projectId), 0)")
     double getTotalCollectedForProject(int projectId);
     
+    /**
+     * Totaux d'un projet (nombre, montant réussi, montant en attente), ou null sans investissement local
+     */
+    @Query("SELECT * FROM project_funding_totals WHERE project_id = :projectId")
+    ProjectFundingTotal getProjectFundingTotal(int projectId);
+    
+    /**
+     * Observation des totaux d'un utilisateur
+     */
+    @Query("SELECT * FROM user_funding_totals WHERE user_id = :userId")
+    Flowable<UserFundingTotal> observeUserFundingTotal(int userId);
+    
+    /**
+     * Contrôle de cohérence : nombre de jours dont la synthèse journalière diffère d'un recalcul complet
+     * Parcourt toute la table : réservé aux vérifications, pas au chemin d'affichage
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM ("
+        + "SELECT user_id, created_at / 86400000 AS day, COUNT(*) AS c, SUM(amount) AS a FROM investments "
+        + "WHERE status = " + InvestmentStatus.Code.COMPLETED + " GROUP BY user_id, created_at / 86400000) r "
+        + "LEFT JOIN investment_daily_totals t ON t.user_id = r.user_id AND t.day = r.day "
+        + "WHERE t.user_id IS NULL OR t.investment_count != r.c OR ABS(t.total_amount - r.a) > 0.005) "
+        + "+ (SELECT COUNT(*) FROM investment_daily_totals t WHERE NOT EXISTS (SELECT 1 FROM investments i "
+        + "WHERE i.user_id = t.user_id AND i.status = " + InvestmentStatus.Code.COMPLETED + " "
+        + "AND i.created_at / 86400000 = t.day))")
+    int countInvestmentDailyTotalMismatches();
+    
+    /**
+     * Contrôle de cohérence : nombre de projets dont les totaux diffèrent d'un recalcul complet
+     * Parcourt toute la table : réservé aux vérifications, pas au chemin d'affichage
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM ("
+        + "SELECT project_id, COUNT(*) AS c, "
+        + "SUM(CASE WHEN status = " + InvestmentStatus.Code.COMPLETED + " THEN amount ELSE 0 END) AS ca, "
+        + "SUM(CASE WHEN status = " + InvestmentStatus.Code.PENDING + " THEN amount ELSE 0 END) AS pa "
+        + "FROM investments GROUP BY project_id) r "
+        + "LEFT JOIN project_funding_totals t ON t.project_id = r.project_id "
+        + "WHERE t.project_id IS NULL OR t.investment_count != r.c "
+        + "OR ABS(t.completed_amount - r.ca) > 0.005 OR ABS(t.pending_amount - r.pa) > 0.005) "
+        + "+ (SELECT COUNT(*) FROM project_funding_totals "
+        + "WHERE project_id NOT IN (SELECT project_id FROM investments))")
+    int countProjectFundingTotalMismatches();
+    
+    /**
+     * Contrôle de cohérence : nombre d'utilisateurs dont les totaux diffèrent d'un recalcul complet
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM ("
+        + "SELECT user_id, COUNT(*) AS c, "
+        + "SUM(CASE WHEN status = " + InvestmentStatus.Code.COMPLETED + " THEN amount ELSE 0 END) AS ca, "
+        + "SUM(CASE WHEN status = " + InvestmentStatus.Code.PENDING + " THEN amount ELSE 0 END) AS pa "
+        + "FROM investments GROUP BY user_id) r "
+        + "LEFT JOIN user_funding_totals t ON t.user_id = r.user_id "
+        + "WHERE t.user_id IS NULL OR t.investment_count != r.c "
+        + "OR ABS(t.completed_amount - r.ca) > 0.005 OR ABS(t.pending_amount - r.pa) > 0.005) "
+        + "+ (SELECT COUNT(*) FROM user_funding_totals "
+        + "WHERE user_id NOT IN (SELECT user_id FROM investments))")
+    int countUserFundingTotalMismatches();
+    
+    /**
+     * Nombre et montant des investissements d'un utilisateur par statut
+     * Lu entièrement dans l'index (user_id, status, amount) ; réémis à chaque modification de la table
+     */
+    @Query("SELECT status, COUNT(*) AS investment_count, COALESCE(SUM(amount), 0) AS total_amount "
+        + "FROM investments WHERE user_id = :userId GROUP BY status")
+    Flowable<List<InvestmentStatusTotal>> observeInvestmentTotalsByStatus(int userId);
+    
+    /**
+     * Totaux journaliers d'un utilisateur depuis un jour donné (lus dans la table de synthèse)
+     */
+    @Query("SELECT day AS bucket, total_amount, investment_count FROM investment_daily_totals "
+        + "WHERE user_id = :userId AND day >= :fromDay ORDER BY day")
+    Flowable<List<InvestmentPeriodTotal>> observeDailyTotals(int userId, long fromDay);
+    
+    /**
+     * Totaux hebdomadaires (semaines commençant le lundi, numérotées depuis 1970)
+     */
+    @Query("SELECT (day + 3) / 7 AS bucket, SUM(total_amount) AS total_amount, "
+        + "SUM(investment_count) AS investment_count FROM investment_daily_totals "
+        + "WHERE user_id = :userId AND day >= :fromDay GROUP BY bucket ORDER BY bucket")
+    Flowable<List<InvestmentPeriodTotal>> observeWeeklyTotals(int userId, long fromDay);
+    
+    /**
+     * Totaux mensuels (mois numérotés depuis janvier 1970)
+     */
+    @Query("SELECT (CAST(strftime('%Y', day * 86400, 'unixepoch') AS INTEGER) - 1970) * 12 "
+        + "+ CAST(strftime('%m', day * 86400, 'unixepoch') AS INTEGER) - 1 AS bucket, "
+        + "SUM(total_amount) AS total_amount, SUM(investment_count) AS investment_count "
+        + "FROM investment_daily_totals WHERE user_id = :userId AND day >= :fromDay "
+        + "GROUP BY bucket ORDER BY bucket")
+    Flowable<List<InvestmentPeriodTotal>> observeMonthlyTotals(int userId, long fromDay);
+    
     /**
      * Comptage des investissements d'un utilisateur
      */
@@ -99,6 +261,26 @@ public interface InvestmentDao {
     @Query("SELECT * FROM investments WHERE user_id = :userId ORDER BY created_at DESC LIMIT :limit")
     List<Investment> getRecentInvestmentsByUser(int userId, int limit);
     
+    /**
+     * Investissements d'autres utilisateurs non mis à jour depuis staleBefore, les plus anciens d'abord
+     * (ceux de l'utilisateur ne sont jamais évincés)
+     */
+    @Query("SELECT id FROM investments WHERE user_id != :userId AND updated_at < :staleBefore "
+        + "ORDER BY updated_at LIMIT :limit")
+    List<Integer> getStaleInvestmentIds(int userId, long staleBefore, int limit);
+    
+    /**
+     * Investissements d'autres utilisateurs les moins récemment mis à jour
+     */
+    @Query("SELECT id FROM investments WHERE user_id != :userId ORDER BY updated_at LIMIT :limit")
+    List<Integer> getOldestEvictableInvestmentIds(int userId, int limit);
+    
+    /**
+     * Nombre total d'investissements en cache
+     */
+    @Query("SELECT COUNT(*) FROM investments")
+    int countInvestments();
+    
     /**
      * Suppression de tous les investissements
      */
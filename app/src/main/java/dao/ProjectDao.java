@@ -2,11 +2,16 @@ package com.crowdfundpro.android.data.db;
 
 import androidx.room.Dao;
 import androidx.room.Delete;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectSearchResult;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import com.crowdfundpro.android.data.models.RowVersion;
+import com.crowdfundpro.android.data.models.TableChecksum;
+import io.reactivex.rxjava3.core.Flowable;
 import java.util.List;
 
 /**
@@ -16,16 +21,45 @@ import java.util.List;
 public interface ProjectDao {
     
     /**
-     * Insertion d'un projet
+     * Insertion ou mise à jour d'un projet (UPDATE si la ligne existe : pas de suppression en cascade)
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertProject(Project project);
+    @Upsert
+    void upsertProject(Project project);
     
     /**
-     * Insertion de plusieurs projets
+     * Insertion ou mise à jour de plusieurs projets
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertProjects(List<Project> projects);
+    @Upsert
+    void upsertProjects(List<Project> projects);
+    
+    /**
+     * Versions en cache (id, updated_at) d'une liste de projets
+     */
+    @Query("SELECT id, updated_at FROM projects WHERE id IN (:ids)")
+    List<RowVersion> getProjectVersions(List<Integer> ids);
+    
+    /**
+     * Upsert des seuls projets nouveaux ou modifiés (updated_at différent de celui en cache)
+     * Retourne le nombre de lignes écrites ; les autres sont ignorées sans aucune écriture
+     */
+    @Transaction
+    default int upsertChangedProjects(List<Project> projects) {
+        List<Project> changed = ChangedRows.filter(projects,
+            Project::getId, Project::getUpdatedAt, this::getProjectVersions);
+        if (!changed.isEmpty()) {
+            upsertProjects(changed);
+        }
+        return changed.size();
+    }
+    
+    /**
+     * Insertion d'une ébauche de projet (statut NULL) si le projet est absent du cache
+     * Les lignes existantes ne sont pas modifiées ; les ébauches sont exclues des listes (status IS NOT NULL)
+     */
+    @Query("INSERT OR IGNORE INTO projects (id, title, description, target_amount, current_amount, status, "
+        + "creator_id, category_id, image_url, created_at, end_date, updated_at) "
+        + "VALUES (:projectId, NULL, NULL, 0, 0, NULL, :creatorId, 0, NULL, 0, 0, 0)")
+    void insertStubProject(int projectId, int creatorId);
     
     /**
      * Mise à jour d'un projet
@@ -40,53 +74,179 @@ public interface ProjectDao {
     void deleteProject(Project project);
     
     /**
-     * Récupération de tous les projets
+     * Récupération de tous les projets (hors ébauches de statut nul, voir ReferencedParents)
      */
-    @Query("SELECT * FROM projects ORDER BY created_at DESC")
+    @Query("SELECT * FROM projects WHERE status IS NOT NULL ORDER BY created_at DESC")
     List<Project> getAllProjects();
     
+    /**
+     * Page de projets plus anciens que la clé (createdAt, id), du plus récent au plus ancien
+     * Pagination par clé : le coût ne dépend pas de la profondeur de défilement (pas d'OFFSET)
+     * Filtres ignorés lorsqu'ils sont nuls (hors ébauches) ; première page avec Long.MAX_VALUE / Integer.MAX_VALUE
+     * Une requête par combinaison de filtres : chacune parcourt l'index qui lui correspond
+     * (un filtre optionnel « :x IS NULL OR » empêcherait SQLite d'utiliser l'index)
+     */
+    default List<Project> getProjectsPageAfter(ProjectStatus status, Integer categoryId, long createdAt, int id, int limit) {
+        if (status != null && categoryId != null) {
+            return getProjectsByStatusAndCategoryPageAfter(status, categoryId, createdAt, id, limit);
+        } else if (status != null) {
+            return getProjectsByStatusPageAfter(status, createdAt, id, limit);
+        } else if (categoryId != null) {
+            return getProjectsByCategoryPageAfter(categoryId, createdAt, id, limit);
+        }
+        return getAllProjectsPageAfter(createdAt, id, limit);
+    }
+    
+    // La borne created_at <= :createdAt délimite le parcours de l'index ; le reste de la clé départage les égalités
+    // (les comparaisons de tuples ne sont pas disponibles avec le SQLite des API 24 à 25)
+    
+    /**
+     * Page sans filtre, lue dans l'index (created_at)
+     */
+    @Query("SELECT * FROM projects WHERE status IS NOT NULL "
+        + "AND created_at <= :createdAt AND (created_at < :createdAt OR id < :id) "
+        + "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<Project> getAllProjectsPageAfter(long createdAt, int id, int limit);
+    
+    /**
+     * Page d'un statut, lue dans l'index (status, created_at)
+     */
+    @Query("SELECT * FROM projects WHERE status = :status "
+        + "AND created_at <= :createdAt AND (created_at < :createdAt OR id < :id) "
+        + "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<Project> getProjectsByStatusPageAfter(ProjectStatus status, long createdAt, int id, int limit);
+    
+    /**
+     * Page d'une catégorie, lue dans l'index (category_id, created_at)
+     */
+    @Query("SELECT * FROM projects WHERE category_id = :categoryId AND status IS NOT NULL "
+        + "AND created_at <= :createdAt AND (created_at < :createdAt OR id < :id) "
+        + "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<Project> getProjectsByCategoryPageAfter(int categoryId, long createdAt, int id, int limit);
+    
+    /**
+     * Page d'un statut dans une catégorie, lue dans l'index (category_id, created_at)
+     */
+    @Query("SELECT * FROM projects WHERE category_id = :categoryId AND status = :status "
+        + "AND created_at <= :createdAt AND (created_at < :createdAt OR id < :id) "
+        + "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<Project> getProjectsByStatusAndCategoryPageAfter(ProjectStatus status, int categoryId, long createdAt, int id, int limit);
+    
     /**
      * Récupération d'un projet par ID
      */
     @Query("SELECT * FROM projects WHERE id = :projectId")
     Project getProjectById(int projectId);
     
+    /**
+     * Récupération de plusieurs projets par ID (une seule requête)
+     */
+    @Query("SELECT * FROM projects WHERE id IN (:projectIds)")
+    List<Project> getProjectsByIds(List<Integer> projectIds);
+    
+    /**
+     * Observation d'un projet par ID (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM projects WHERE id = :projectId")
+    Flowable<Project> observeProjectById(int projectId);
+    
     /**
      * Récupération des projets par catégorie
      */
-    @Query("SELECT * FROM projects WHERE category_id = :categoryId ORDER BY created_at DESC")
+    @Query("SELECT * FROM projects WHERE category_id = :categoryId AND status IS NOT NULL ORDER BY created_at DESC")
     List<Project> getProjectsByCategory(int categoryId);
     
     /**
      * Récupération des projets par statut
      */
     @Query("SELECT * FROM projects WHERE status = :status ORDER BY created_at DESC")
-    List<Project> getProjectsByStatus(String status);
+    List<Project> getProjectsByStatus(ProjectStatus status);
+    
+    /**
+     * Observation des projets par statut (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM projects WHERE status = :status ORDER BY created_at DESC")
+    Flowable<List<Project>> observeProjectsByStatus(ProjectStatus status);
     
     /**
-     * Recherche de projets par titre
+     * Recherche plein texte dans le titre et la description (expressions MATCH, voir ProjectFts.toMatchQuery)
+     * Classement grossier en SQL : projets dont le titre contient tous les mots, puis les plus récents ;
+     * seules limit lignes sont lues, avec leurs statistiques matchinfo pour affiner le classement
      */
-    @Query("SELECT * FROM projects WHERE title LIKE '%' || :searchQuery || '%' ORDER BY created_at DESC")
-    List<Project> searchProjectsByTitle(String searchQuery);
+    @Query("SELECT projects.*, matchinfo(projects_fts, 'pcnx') AS match_info FROM projects "
+        + "JOIN projects_fts ON projects.id = projects_fts.rowid WHERE projects_fts MATCH :matchQuery "
+        + "ORDER BY projects.id IN (SELECT rowid FROM projects_fts WHERE projects_fts MATCH :titleMatchQuery) DESC, "
+        + "projects.created_at DESC LIMIT :limit")
+    List<ProjectSearchResult> searchProjects(String matchQuery, String titleMatchQuery, int limit);
     
     /**
      * Récupération des projets créés par un utilisateur
      */
-    @Query("SELECT * FROM projects WHERE creator_id = :creatorId ORDER BY created_at DESC")
+    @Query("SELECT * FROM projects WHERE creator_id = :creatorId AND status IS NOT NULL ORDER BY created_at DESC")
     List<Project> getProjectsByCreator(int creatorId);
     
     /**
      * Récupération des projets actifs
      */
-    @Query("SELECT * FROM projects WHERE status = 'ACTIVE' AND end_date > :currentTime ORDER BY created_at DESC")
+    @Query("SELECT * FROM projects WHERE status = " + ProjectStatus.Code.ACTIVE + " AND end_date > :currentTime ORDER BY created_at DESC")
     List<Project> getActiveProjects(long currentTime);
     
     /**
      * Récupération des projets les plus populaires (par montant collecté)
      */
-    @Query("SELECT * FROM projects ORDER BY current_amount DESC LIMIT :limit")
+    @Query("SELECT * FROM projects WHERE status IS NOT NULL ORDER BY current_amount DESC LIMIT :limit")
     List<Project> getPopularProjects(int limit);
     
+    /**
+     * Suppression de projets par ID (tombstones de la synchronisation)
+     */
+    @Query("DELETE FROM projects WHERE id IN (:projectIds)")
+    void deleteProjectsByIds(List<Integer> projectIds);
+    
+    /**
+     * Présence d'au moins un projet complet en cache (hors ébauches)
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM projects WHERE status IS NOT NULL)")
+    boolean hasProjects();
+    
+    /**
+     * Empreinte des projets complets en cache (hors ébauches), comparée à celle de ProjectIndex
+     */
+    @Query("SELECT COUNT(*) AS row_count, COALESCE(SUM(id), 0) AS id_sum, "
+        + "COALESCE(MAX(updated_at), 0) AS max_updated_at FROM projects WHERE status IS NOT NULL")
+    TableChecksum getListedProjectsChecksum();
+    
+    /**
+     * Projets évictables (ni créés ni financés par l'utilisateur) périmés : non mis à jour depuis staleBefore
+     * ou terminés avant endedBefore, les plus anciens d'abord
+     */
+    @Query("SELECT id FROM projects WHERE creator_id != :userId "
+        + "AND id NOT IN (SELECT project_id FROM investments WHERE user_id = :userId) "
+        + "AND (updated_at < :staleBefore OR (end_date > 0 AND end_date < :endedBefore)) "
+        + "ORDER BY updated_at LIMIT :limit")
+    List<Integer> getStaleProjectIds(int userId, long staleBefore, long endedBefore, int limit);
+    
+    /**
+     * Projets de la liste toujours évictables (ni créés ni financés par l'utilisateur)
+     */
+    @Query("SELECT id FROM projects WHERE id IN (:projectIds) AND creator_id != :userId "
+        + "AND id NOT IN (SELECT project_id FROM investments WHERE user_id = :userId)")
+    List<Integer> getEvictableProjectIds(List<Integer> projectIds, int userId);
+    
+    /**
+     * Projets évictables les moins récemment mis à jour
+     */
+    @Query("SELECT id FROM projects WHERE creator_id != :userId "
+        + "AND id NOT IN (SELECT project_id FROM investments WHERE user_id = :userId) "
+        + "ORDER BY updated_at LIMIT :limit")
+    List<Integer> getOldestEvictableProjectIds(int userId, int limit);
+    
+    /**
+     * Nombre total de lignes (ébauches comprises)
+     */
+    @Query("SELECT COUNT(*) FROM projects")
+    int countProjects();
+    
     /**
      * Suppression de tous les projets
      */
@@ -97,6 +257,6 @@ public interface ProjectDao {
      * Comptage des projets par statut
      */
     @Query("SELECT COUNT(*) FROM projects WHERE status = :status")
-    int countProjectsByStatus(String status);
+    int countProjectsByStatus(ProjectStatus status);
 }
 
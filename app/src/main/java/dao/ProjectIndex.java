@@ -0,0 +1,209 @@
+package com.crowdfundpro.android.data.db;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import com.crowdfundpro.android.data.models.TableChecksum;
+import com.crowdfundpro.android.utils.AppExecutors;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Index en mémoire des projets en cache, par catégorie et par statut, pour le filtrage instantané de la liste
+ * Construit depuis Room sur la file d'écriture, puis tenu à jour par WriteBehindBuffer après chaque transaction
+ * Les écritures faites hors du tampon (suppressions en cascade...) sont rattrapées par un contrôle d'empreinte
+ * (nombre de lignes, identifiants, dernière modification) à chaque invalidation de la table projects,
+ * et l'index est alors reconstruit
+ * Les ébauches (status nul) ne sont pas indexées, comme dans les listes lues en base
+ */
+public class ProjectIndex {
+    
+    // Même ordre que la pagination locale (getProjectsPageAfter) : created_at puis id décroissants
+    private static final Comparator<Project> FEED_ORDER = (a, b) -> {
+        int byDate = Long.compare(b.getCreatedAt(), a.getCreatedAt());
+        return byDate != 0 ? byDate : Integer.compare(b.getId(), a.getId());
+    };
+    
+    // Valeur de clé pour « toutes les catégories » / « tous les statuts »
+    private static final int ANY_CATEGORY = Integer.MIN_VALUE;
+    private static final int ANY_STATUS = Integer.MAX_VALUE;
+    
+    private final CrowdfundProDatabase database;
+    private final AppExecutors executors;
+    
+    private final Object lock = new Object();
+    private final Map<Integer, Project> byId = new HashMap<>();
+    private final Map<Long, TreeSet<Project>> buckets = new HashMap<>();
+    private boolean ready;
+    private boolean loadScheduled;
+    
+    ProjectIndex(CrowdfundProDatabase database, AppExecutors executors) {
+        this.database = database;
+        this.executors = executors;
+    }
+    
+    /**
+     * Construction de l'index en arrière-plan (sans effet s'il est déjà construit ou en cours de construction)
+     * Sur la file d'écriture : aucune écriture ne peut s'intercaler entre la lecture et l'index
+     */
+    public void load() {
+        synchronized (lock) {
+            if (ready || loadScheduled) return;
+            loadScheduled = true;
+        }
+        executors.diskWrite().execute(() -> {
+            rebuild();
+            database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("projects") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    executors.diskWrite().execute(ProjectIndex.this::verify);
+                }
+            });
+        });
+    }
+    
+    public boolean isReady() {
+        synchronized (lock) {
+            return ready;
+        }
+    }
+    
+    /**
+     * Premiers projets (au plus limit) d'une catégorie et d'un statut, nuls pour ne pas filtrer
+     * Retourne null si l'index n'est pas encore construit (la construction est alors lancée)
+     */
+    public List<Project> query(Integer categoryId, ProjectStatus status, int limit) {
+        List<Project> projects;
+        synchronized (lock) {
+            if (!ready) {
+                projects = null;
+            } else {
+                TreeSet<Project> bucket = buckets.get(key(categoryId, status));
+                projects = new ArrayList<>(bucket != null ? Math.min(bucket.size(), limit) : 0);
+                if (bucket != null) {
+                    Iterator<Project> iterator = bucket.iterator();
+                    while (iterator.hasNext() && projects.size() < limit) {
+                        projects.add(iterator.next());
+                    }
+                }
+            }
+        }
+        if (projects == null) {
+            PerformanceMetrics.increment("project_index.misses");
+            load();
+        } else {
+            PerformanceMetrics.increment("project_index.hits");
+        }
+        return projects;
+    }
+    
+    /**
+     * Prise en compte de projets écrits en base (appelée après la transaction, sur la file d'écriture)
+     */
+    void onProjectsWritten(List<Project> projects) {
+        synchronized (lock) {
+            if (!ready) return;
+            // Projets reçus du réseau, jamais des ébauches : un statut nul est enregistré comme UNKNOWN
+            for (Project project : projects) {
+                remove(project.getId());
+                add(project);
+            }
+        }
+    }
+    
+    /**
+     * Prise en compte de projets supprimés de la base
+     */
+    void onProjectsDeleted(List<Integer> projectIds) {
+        synchronized (lock) {
+            if (!ready) return;
+            for (int projectId : projectIds) {
+                remove(projectId);
+            }
+        }
+    }
+    
+    private void rebuild() {
+        long start = SystemClock.elapsedRealtime();
+        List<Project> projects = database.projectDao().getAllProjects();
+        synchronized (lock) {
+            byId.clear();
+            buckets.clear();
+            for (Project project : projects) {
+                add(project);
+            }
+            ready = true;
+            loadScheduled = false;
+        }
+        PerformanceMetrics.increment("project_index.builds");
+        PerformanceMetrics.recordTime("project_index.build", SystemClock.elapsedRealtime() - start);
+    }
+    
+    /**
+     * Reconstruction si l'empreinte des projets en base (nombre, somme des identifiants, dernière modification)
+     * ne correspond plus à l'index : ajouts, suppressions, remplacements à nombre constant et mises à jour en place
+     */
+    private void verify() {
+        TableChecksum indexed;
+        synchronized (lock) {
+            long idSum = 0;
+            long maxUpdatedAt = 0;
+            for (Project project : byId.values()) {
+                idSum += project.getId();
+                maxUpdatedAt = Math.max(maxUpdatedAt, project.getUpdatedAt());
+            }
+            indexed = new TableChecksum(byId.size(), idSum, maxUpdatedAt);
+        }
+        if (!indexed.matches(database.projectDao().getListedProjectsChecksum())) {
+            PerformanceMetrics.increment("project_index.stale");
+            rebuild();
+        }
+    }
+    
+    private void add(Project project) {
+        byId.put(project.getId(), project);
+        for (long key : keys(project)) {
+            TreeSet<Project> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new TreeSet<>(FEED_ORDER);
+                buckets.put(key, bucket);
+            }
+            bucket.add(project);
+        }
+    }
+    
+    private void remove(int projectId) {
+        Project previous = byId.remove(projectId);
+        if (previous == null) return;
+        for (long key : keys(previous)) {
+            TreeSet<Project> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(previous);
+            }
+        }
+    }
+    
+    private static long[] keys(Project project) {
+        ProjectStatus status = project.getStatus() != null ? project.getStatus() : ProjectStatus.UNKNOWN;
+        return new long[] {
+            key(project.getCategoryId(), status),
+            key(project.getCategoryId(), null),
+            key(null, status),
+            key(null, null)
+        };
+    }
+    
+    private static long key(Integer categoryId, ProjectStatus status) {
+        long category = categoryId != null ? categoryId : ANY_CATEGORY;
+        return (category << 32) | (status != null ? status.getCode() : ANY_STATUS);
+    }
+}
@@ -0,0 +1,77 @@
+package com.crowdfundpro.android.data.db;
+
+import com.crowdfundpro.android.data.models.Comment;
+import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.User;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lignes parentes référencées par un lot reçu du réseau (créateurs, investisseurs, projets)
+ * Les parents absents du cache sont insérés sous forme d'ébauches avant le lot, dans la même transaction,
+ * pour que les clés étrangères soient satisfaites sans requête réseau supplémentaire
+ * Une ébauche a updated_at = 0 : elle est remplacée par la ligne complète dès que celle-ci est reçue
+ */
+final class ReferencedParents {
+    
+    // Créateur des projets ébauches (inconnu tant que le projet complet n'a pas été reçu)
+    static final int UNKNOWN_USER_ID = 0;
+    
+    private final Set<Integer> userIds = new LinkedHashSet<>();
+    private final Set<Integer> projectIds = new LinkedHashSet<>();
+    private final Set<Integer> batchProjectIds = new LinkedHashSet<>();
+    
+    ReferencedParents addProjects(List<Project> projects) {
+        for (Project project : projects) {
+            batchProjectIds.add(project.getId());
+            userIds.add(project.getCreatorId());
+        }
+        return this;
+    }
+    
+    ReferencedParents addInvestments(List<Investment> investments) {
+        for (Investment investment : investments) {
+            userIds.add(investment.getUserId());
+            projectIds.add(investment.getProjectId());
+        }
+        return this;
+    }
+    
+    ReferencedParents addComments(List<Comment> comments) {
+        for (Comment comment : comments) {
+            userIds.add(comment.getUserId());
+            projectIds.add(comment.getProjectId());
+        }
+        return this;
+    }
+    
+    /**
+     * Insertion des ébauches manquantes, utilisateurs puis projets (ordre des clés étrangères)
+     * Les lignes déjà présentes ne sont pas modifiées. À appeler dans la transaction du lot
+     */
+    void insertMissing(CrowdfundProDatabase database) {
+        // Les projets du lot seront écrits en entier juste après
+        projectIds.removeAll(batchProjectIds);
+        if (!projectIds.isEmpty()) {
+            userIds.add(UNKNOWN_USER_ID);
+        }
+        
+        if (!userIds.isEmpty()) {
+            List<User> users = new ArrayList<>();
+            for (int userId : userIds) {
+                User user = new User();
+                user.setId(userId);
+                users.add(user);
+            }
+            database.userDao().insertMissingUsers(users);
+        }
+        
+        for (int projectId : projectIds) {
+            // Statut NULL : les ébauches sont exclues des listes de projets
+            database.projectDao().insertStubProject(projectId, UNKNOWN_USER_ID);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.crowdfundpro.android.data.db;
+
+import androidx.room.TypeConverter;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+
+/**
+ * Conversions Room des statuts : enum côté Java, petit entier (INTEGER) côté SQLite
+ * Statut de projet nul ou inconnu : stocké comme UNKNOWN, la valeur NULL étant réservée aux ébauches
+ * (insérées par ProjectDao.insertStubProject) ; statut d'investissement nul : NULL
+ */
+public final class StatusConverters {
+    
+    private StatusConverters() {}
+    
+    @TypeConverter
+    public static Integer fromProjectStatus(ProjectStatus status) {
+        return status != null ? status.getCode() : ProjectStatus.Code.UNKNOWN;
+    }
+    
+    @TypeConverter
+    public static ProjectStatus toProjectStatus(Integer code) {
+        return code != null ? ProjectStatus.fromCode(code) : null;
+    }
+    
+    @TypeConverter
+    public static Integer fromInvestmentStatus(InvestmentStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+    
+    @TypeConverter
+    public static InvestmentStatus toInvestmentStatus(Integer code) {
+        return code != null ? InvestmentStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.crowdfundpro.android.data.db;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Upsert;
+import com.crowdfundpro.android.data.models.SyncState;
+
+/**
+ * DAO (Data Access Object) pour les points de reprise de la synchronisation
+ */
+@Dao
+public interface SyncStateDao {
+    
+    /**
+     * Récupération du point de reprise d'une entité (null si jamais synchronisée)
+     */
+    @Query("SELECT * FROM sync_state WHERE entity = :entity")
+    SyncState getSyncState(String entity);
+    
+    /**
+     * Enregistrement d'un point de reprise
+     */
+    @Upsert
+    void upsertSyncState(SyncState syncState);
+    
+    /**
+     * Suppression de tous les points de reprise (la prochaine synchronisation sera complète)
+     */
+    @Query("DELETE FROM sync_state")
+    void deleteAllSyncStates();
+}
@@ -6,7 +6,10 @@ import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 import com.crowdfundpro.android.data.models.User;
+import io.reactivex.rxjava3.core.Flowable;
+import java.util.List;
 
 /**
  * DAO (Data Access Object) pour les opérations sur les utilisateurs
@@ -15,10 +18,17 @@ import com.crowdfundpro.android.data.models.User;
 public interface UserDao {
     
     /**
-     * Insertion d'un utilisateur
+     * Insertion ou mise à jour d'un utilisateur (UPDATE si la ligne existe : ses projets,
+     * investissements et commentaires en cache ne sont pas supprimés en cascade)
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertUser(User user);
+    @Upsert
+    void upsertUser(User user);
+    
+    /**
+     * Insertion des utilisateurs absents du cache (les lignes existantes ne sont pas modifiées)
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertMissingUsers(List<User> users);
     
     /**
      * Mise à jour d'un utilisateur
@@ -38,6 +48,12 @@ public interface UserDao {
     @Query("SELECT * FROM users WHERE id = :userId")
     User getUserById(int userId);
     
+    /**
+     * Observation d'un utilisateur par ID (réémis à chaque modification de la table)
+     */
+    @Query("SELECT * FROM users WHERE id = :userId")
+    Flowable<User> observeUserById(int userId);
+    
     /**
      * Récupération d'un utilisateur par nom d'utilisateur
      */
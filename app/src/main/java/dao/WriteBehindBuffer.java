@@ -0,0 +1,389 @@
+package com.crowdfundpro.android.data.db;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.crowdfundpro.android.data.models.Category;
+import com.crowdfundpro.android.data.models.Comment;
+import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.SyncState;
+import com.crowdfundpro.android.utils.AppExecutors;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import com.crowdfundpro.android.utils.TokenManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tampon d'écriture différée pour les données reçues du réseau
+ * Les upserts sont regroupés par entité (le dernier reçu l'emporte) pendant une courte fenêtre,
+ * puis écrits en une seule transaction Room sur la file d'écriture
+ */
+public class WriteBehindBuffer implements ComponentCallbacks2 {
+    
+    private static final String TAG = "WriteBehindBuffer";
+    
+    // Fenêtre de regroupement des écritures
+    static final long FLUSH_WINDOW_MS = 250;
+    // Au-delà, on vide le tampon sans attendre la fin de la fenêtre
+    static final int MAX_PENDING_ROWS = 500;
+    
+    private static volatile WriteBehindBuffer INSTANCE;
+    
+    /**
+     * Fin d'une fusion (mergeChanges), sur la file d'écriture
+     */
+    public interface MergeCallback {
+        void onMerged(int writtenRows);
+        void onError(RuntimeException error);
+    }
+    
+    private final CrowdfundProDatabase database;
+    private final AppExecutors executors;
+    private final ProjectIndex projectIndex;
+    private final CacheEviction cacheEviction;
+    
+    private final Object lock = new Object();
+    private Map<Integer, Project> pendingProjects = new LinkedHashMap<>();
+    private Map<Integer, Investment> pendingInvestments = new LinkedHashMap<>();
+    private Map<Integer, Comment> pendingComments = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    
+    WriteBehindBuffer(CrowdfundProDatabase database, AppExecutors executors, IntSupplier currentUserId) {
+        this.database = database;
+        this.executors = executors;
+        this.projectIndex = new ProjectIndex(database, executors);
+        this.cacheEviction = new CacheEviction(database, executors, projectIndex, currentUserId);
+    }
+    
+    /**
+     * Singleton lié à la base de données de l'application
+     */
+    public static WriteBehindBuffer getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (WriteBehindBuffer.class) {
+                if (INSTANCE == null) {
+                    Context appContext = context.getApplicationContext();
+                    TokenManager tokenManager = new TokenManager(appContext);
+                    INSTANCE = new WriteBehindBuffer(
+                        CrowdfundProDatabase.getDatabase(appContext),
+                        AppExecutors.getInstance(),
+                        tokenManager::getUserIdFromToken
+                    );
+                    // Vidage forcé (et éviction du cache) quand l'application passe en arrière-plan
+                    appContext.registerComponentCallbacks(INSTANCE);
+                    INSTANCE.projectIndex.load();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+    
+    /**
+     * Index en mémoire des projets en cache, tenu à jour par ce tampon
+     */
+    public ProjectIndex getProjectIndex() {
+        return projectIndex;
+    }
+    
+    /**
+     * Mise en attente d'un projet
+     */
+    public void enqueueProject(Project project) {
+        if (project == null) return;
+        synchronized (lock) {
+            pendingProjects.put(project.getId(), project);
+        }
+        onEnqueued(1);
+    }
+    
+    /**
+     * Mise en attente de plusieurs projets
+     */
+    public void enqueueProjects(List<Project> projects) {
+        if (projects == null || projects.isEmpty()) return;
+        synchronized (lock) {
+            for (Project project : projects) {
+                pendingProjects.put(project.getId(), project);
+            }
+        }
+        onEnqueued(projects.size());
+    }
+    
+    /**
+     * Mise en attente de plusieurs investissements
+     */
+    public void enqueueInvestments(List<Investment> investments) {
+        if (investments == null || investments.isEmpty()) return;
+        synchronized (lock) {
+            for (Investment investment : investments) {
+                pendingInvestments.put(investment.getId(), investment);
+            }
+        }
+        onEnqueued(investments.size());
+    }
+    
+    /**
+     * Mise en attente de plusieurs commentaires
+     */
+    public void enqueueComments(List<Comment> comments) {
+        if (comments == null || comments.isEmpty()) return;
+        synchronized (lock) {
+            for (Comment comment : comments) {
+                pendingComments.put(comment.getId(), comment);
+            }
+        }
+        onEnqueued(comments.size());
+    }
+    
+    /**
+     * Remplacement de la liste complète des catégories reçue du serveur, sur la file d'écriture
+     * Seules les catégories nouvelles ou modifiées sont écrites ; celles qui ont disparu (y compris celles
+     * de la base pré-remplie) sont supprimées. Une liste vide est ignorée
+     */
+    public void replaceCategories(List<Category> categories) {
+        if (categories == null || categories.isEmpty()) return;
+        List<Category> snapshot = new ArrayList<>(categories);
+        executors.diskWrite().execute(() -> {
+            int written = database.categoryDao().replaceCategories(snapshot);
+            PerformanceMetrics.add("write_behind.rows_written", written);
+            PerformanceMetrics.add("write_behind.rows_skipped", Math.max(0, snapshot.size() - written));
+        });
+    }
+    
+    /**
+     * Vidage immédiat du tampon (sur la file d'écriture)
+     */
+    public void flushNow() {
+        executors.diskWrite().execute(this::flush);
+    }
+    
+    /**
+     * Fusion d'un lot reçu par synchronisation différentielle, sur la file d'écriture
+     * Le tampon est d'abord vidé pour conserver l'ordre des écritures, puis en une seule transaction :
+     * parents manquants, upserts des lignes modifiées, suppression des tombstones et, si syncState
+     * fournit un état (lu dans la transaction), nouveau point de reprise (enregistré seulement si tout le lot est écrit)
+     * callback reçoit le nombre de lignes écrites ou supprimées, ou l'erreur qui a annulé la transaction
+     * (aucune ligne du lot ni point de reprise écrit), sur la file d'écriture
+     */
+    public void mergeChanges(List<Project> projects, List<Investment> investments, Supplier<SyncState> syncState,
+                             MergeCallback callback) {
+        executors.diskWrite().execute(() -> {
+            flush();
+            
+            List<Project> changedProjects = new ArrayList<>();
+            List<Integer> deletedProjectIds = new ArrayList<>();
+            for (Project project : projects) {
+                if (project.isDeleted()) {
+                    deletedProjectIds.add(project.getId());
+                } else {
+                    changedProjects.add(project);
+                }
+            }
+            List<Investment> changedInvestments = new ArrayList<>();
+            List<Integer> deletedInvestmentIds = new ArrayList<>();
+            for (Investment investment : investments) {
+                if (investment.isDeleted()) {
+                    deletedInvestmentIds.add(investment.getId());
+                } else {
+                    changedInvestments.add(investment);
+                }
+            }
+            
+            int written;
+            try {
+                written = database.runInTransaction(() -> {
+                    new ReferencedParents()
+                        .addProjects(changedProjects)
+                        .addInvestments(changedInvestments)
+                        .insertMissing(database);
+                    int count = 0;
+                    if (!changedProjects.isEmpty()) {
+                        count += database.projectDao().upsertChangedProjects(changedProjects);
+                    }
+                    if (!changedInvestments.isEmpty()) {
+                        count += database.investmentDao().upsertChangedInvestments(changedInvestments);
+                    }
+                    // Les investissements avant les projets : ceux d'un projet supprimé partent en cascade
+                    deleteInChunks(deletedInvestmentIds, database.investmentDao()::deleteInvestmentsByIds);
+                    deleteInChunks(deletedProjectIds, database.projectDao()::deleteProjectsByIds);
+                    SyncState state = syncState.get();
+                    if (state != null) {
+                        database.syncStateDao().upsertSyncState(state);
+                    }
+                    return count + deletedInvestmentIds.size() + deletedProjectIds.size();
+                });
+            } catch (RuntimeException e) {
+                // Transaction annulée : le point de reprise précédent reste en place, le lot sera redemandé
+                PerformanceMetrics.increment("write_behind.merge_failed");
+                Log.e(TAG, "Fusion d'un lot de " + (projects.size() + investments.size()) + " lignes impossible", e);
+                callback.onError(e);
+                return;
+            }
+            projectIndex.onProjectsWritten(changedProjects);
+            projectIndex.onProjectsDeleted(deletedProjectIds);
+            
+            int rows = projects.size() + investments.size();
+            PerformanceMetrics.add("write_behind.rows_written", written);
+            PerformanceMetrics.add("write_behind.rows_skipped", Math.max(0, rows - written));
+            callback.onMerged(written);
+        });
+    }
+    
+    private static void deleteInChunks(List<Integer> ids, Consumer<List<Integer>> delete) {
+        // Nombre de paramètres par requête IN (limite SQLite de 999 variables)
+        for (int from = 0; from < ids.size(); from += 500) {
+            delete.accept(ids.subList(from, Math.min(ids.size(), from + 500)));
+        }
+    }
+    
+    private void onEnqueued(int rows) {
+        PerformanceMetrics.add("write_behind.rows_enqueued", rows);
+        
+        boolean flushImmediately;
+        boolean scheduleFlush;
+        synchronized (lock) {
+            flushImmediately = pendingRowCount() >= MAX_PENDING_ROWS;
+            scheduleFlush = !flushImmediately && !flushScheduled;
+            if (scheduleFlush) {
+                flushScheduled = true;
+            }
+        }
+        
+        if (flushImmediately) {
+            flushNow();
+        } else if (scheduleFlush) {
+            executors.schedule(this::flush, FLUSH_WINDOW_MS, executors.diskWrite());
+        }
+    }
+    
+    private int pendingRowCount() {
+        return pendingProjects.size() + pendingInvestments.size() + pendingComments.size();
+    }
+    
+    /**
+     * Écriture de tout ce qui est en attente dans une seule transaction
+     * Doit être appelée depuis la file d'écriture
+     */
+    void flush() {
+        final List<Project> projects;
+        final List<Investment> investments;
+        final List<Comment> comments;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pendingRowCount() == 0) {
+                return;
+            }
+            projects = new ArrayList<>(pendingProjects.values());
+            investments = new ArrayList<>(pendingInvestments.values());
+            comments = new ArrayList<>(pendingComments.values());
+            pendingProjects = new LinkedHashMap<>();
+            pendingInvestments = new LinkedHashMap<>();
+            pendingComments = new LinkedHashMap<>();
+        }
+        
+        long start = SystemClock.elapsedRealtime();
+        // Ordre des dépendances : ébauches des utilisateurs et projets référencés mais absents du cache,
+        // puis les projets, puis les investissements et commentaires qui les référencent
+        // Upserts (UPDATE des lignes existantes) : pas de DELETE, donc pas de suppression en cascade
+        // des investissements et commentaires en cache ; les lignes inchangées ne sont pas réécrites
+        int written;
+        List<Project> writtenProjects = projects;
+        try {
+            written = database.runInTransaction(() -> {
+                int count = 0;
+                new ReferencedParents()
+                    .addProjects(projects)
+                    .addInvestments(investments)
+                    .addComments(comments)
+                    .insertMissing(database);
+                if (!projects.isEmpty()) {
+                    count += database.projectDao().upsertChangedProjects(projects);
+                }
+                if (!investments.isEmpty()) {
+                    count += database.investmentDao().upsertChangedInvestments(investments);
+                }
+                if (!comments.isEmpty()) {
+                    count += database.commentDao().upsertChangedComments(comments);
+                }
+                return count;
+            });
+        } catch (RuntimeException e) {
+            // Une seule ligne invalide (contrainte, clé étrangère) annule toute la transaction :
+            // le lot est réécrit ligne par ligne pour ne perdre que les lignes fautives
+            PerformanceMetrics.increment("write_behind.failed");
+            Log.w(TAG, "Lot de " + (projects.size() + investments.size() + comments.size())
+                + " lignes en échec, écriture ligne par ligne", e);
+            writtenProjects = new ArrayList<>();
+            written = writeEach(projects, ReferencedParents::addProjects,
+                    database.projectDao()::upsertChangedProjects, writtenProjects)
+                + writeEach(investments, ReferencedParents::addInvestments,
+                    database.investmentDao()::upsertChangedInvestments, new ArrayList<>())
+                + writeEach(comments, ReferencedParents::addComments,
+                    database.commentDao()::upsertChangedComments, new ArrayList<>());
+        }
+        projectIndex.onProjectsWritten(writtenProjects);
+        
+        int rows = projects.size() + investments.size() + comments.size();
+        PerformanceMetrics.increment("write_behind.transactions");
+        PerformanceMetrics.add("write_behind.rows_written", written);
+        PerformanceMetrics.add("write_behind.rows_skipped", rows - written);
+        PerformanceMetrics.recordMax("write_behind.batch_size_max", rows);
+        PerformanceMetrics.recordTime("write_behind.flush", SystemClock.elapsedRealtime() - start);
+    }
+    
+    /**
+     * Écriture de secours, chaque ligne dans sa propre transaction avec ses parents référencés
+     * Les lignes encore en échec sont comptées (write_behind.rows_failed) et abandonnées : les réessayer
+     * échouerait de la même façon ; la prochaine lecture réseau les rapportera
+     * Retourne le nombre de lignes écrites ; writtenRows reçoit les lignes qui n'ont pas échoué
+     */
+    private <T> int writeEach(List<T> rows, BiFunction<ReferencedParents, List<T>, ReferencedParents> addParents,
+                              ToIntFunction<List<T>> upsert, List<T> writtenRows) {
+        int written = 0;
+        for (T row : rows) {
+            List<T> single = Collections.singletonList(row);
+            try {
+                written += database.runInTransaction(() -> {
+                    addParents.apply(new ReferencedParents(), single).insertMissing(database);
+                    return upsert.applyAsInt(single);
+                });
+                writtenRows.add(row);
+            } catch (RuntimeException e) {
+                PerformanceMetrics.increment("write_behind.rows_failed");
+                Log.w(TAG, "Ligne ignorée : " + row.getClass().getSimpleName(), e);
+            }
+        }
+        return written;
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            flushNow();
+            // Après le vidage (même file d'écriture) : l'éviction voit les dernières écritures
+            cacheEviction.runIfDue();
+        }
+    }
+    
+    @Override
+    public void onLowMemory() {
+        flushNow();
+    }
+    
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // Rien à faire
+    }
+}
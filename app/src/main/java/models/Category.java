@@ -3,6 +3,7 @@ package com.crowdfundpro.android.data.models;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
+import java.util.Objects;
 
 /**
  * Entité Room représentant une catégorie dans la base de données locale
@@ -58,5 +59,16 @@ public class Category {
 
     public long getCreatedAt() { return createdAt; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
-}
 
+    /**
+     * Mêmes valeurs que other (évite de réécrire une catégorie inchangée)
+     */
+    public boolean hasSameContent(Category other) {
+        return id == other.id
+            && createdAt == other.createdAt
+            && Objects.equals(name, other.name)
+            && Objects.equals(description, other.description)
+            && Objects.equals(iconUrl, other.iconUrl)
+            && Objects.equals(color, other.color);
+    }
+}
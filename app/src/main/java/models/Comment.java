@@ -19,7 +19,9 @@ import androidx.room.Index;
                        childColumns = "projectId",
                        onDelete = ForeignKey.CASCADE)
         },
-        indices = {@Index("userId"), @Index("projectId")})
+        // (projectId, createdAt) : commentaires d'un projet dans l'ordre d'affichage (couvre aussi la clé étrangère)
+        // updatedAt : éviction du cache (commentaires les moins récemment mis à jour)
+        indices = {@Index("userId"), @Index(value = {"projectId", "createdAt"}), @Index("updatedAt")})
 public class Comment {
     
     @PrimaryKey
@@ -4,6 +4,8 @@ import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Entité Room représentant un investissement dans la base de données locale
@@ -18,6 +20,18 @@ import androidx.room.ForeignKey;
                         parentColumns = "id",
                         childColumns = "user_id",
                         onDelete = ForeignKey.CASCADE)
+        },
+        indices = {
+            // Investissements d'un utilisateur / d'un projet triés par date (couvrent aussi les clés étrangères)
+            @Index(value = {"user_id", "created_at"}),
+            @Index(value = {"project_id", "created_at"}),
+            // Index couvrants pour les sommes par statut (SUM(amount) lu directement dans l'index)
+            @Index(value = {"user_id", "status", "amount"}),
+            @Index(value = {"project_id", "status", "amount"}),
+            @Index(value = {"status", "created_at"}),
+            @Index(value = {"user_id", "project_id", "created_at"}),
+            // Éviction du cache : investissements les moins récemment mis à jour
+            @Index(value = {"updated_at"})
         })
 public class Investment {
     @PrimaryKey
@@ -34,7 +48,7 @@ public class Investment {
     private double amount;
 
     @ColumnInfo(name = "status")
-    private String status; // PENDING, COMPLETED, FAILED, REFUNDED
+    private InvestmentStatus status; // Stocké comme entier (StatusConverters)
 
     @ColumnInfo(name = "payment_method")
     private String paymentMethod; // STRIPE, PAYPAL, etc.
@@ -48,10 +62,14 @@ public class Investment {
     @ColumnInfo(name = "updated_at")
     private long updatedAt;
 
+    // Marqueur de suppression (tombstone) renvoyé par la synchronisation différentielle, jamais stocké
+    @Ignore
+    private boolean deleted;
+
     // Constructeurs
     public Investment() {}
 
-    public Investment(int id, int projectId, int userId, double amount, String status,
+    public Investment(int id, int projectId, int userId, double amount, InvestmentStatus status,
                      String paymentMethod, String transactionId, long createdAt, long updatedAt) {
         this.id = id;
         this.projectId = projectId;
@@ -77,8 +95,8 @@ public class Investment {
     public double getAmount() { return amount; }
     public void setAmount(double amount) { this.amount = amount; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public InvestmentStatus getStatus() { return status; }
+    public void setStatus(InvestmentStatus status) { this.status = status; }
 
     public String getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
@@ -92,17 +110,20 @@ public class Investment {
     public long getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
 
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
     // Méthodes utilitaires
     public boolean isCompleted() {
-        return "COMPLETED".equals(status);
+        return status == InvestmentStatus.COMPLETED;
     }
 
     public boolean isPending() {
-        return "PENDING".equals(status);
+        return status == InvestmentStatus.PENDING;
     }
 
     public boolean isFailed() {
-        return "FAILED".equals(status);
+        return status == InvestmentStatus.FAILED;
     }
 }
 
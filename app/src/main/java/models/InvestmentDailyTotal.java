@@ -0,0 +1,37 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Table de synthèse : montant et nombre d'investissements réussis par utilisateur et par jour (UTC)
+ * Maintenue par des triggers SQL sur la table investments (voir DatabaseTriggers), jamais écrite par l'application
+ */
+@Entity(tableName = "investment_daily_totals",
+        primaryKeys = {"user_id", "day"})
+public class InvestmentDailyTotal {
+    @ColumnInfo(name = "user_id")
+    private int userId;
+
+    @ColumnInfo(name = "day")
+    private long day; // Nombre de jours depuis le 1er janvier 1970
+
+    @ColumnInfo(name = "total_amount")
+    private double totalAmount;
+
+    @ColumnInfo(name = "investment_count")
+    private int investmentCount;
+
+    // Getters et Setters
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public long getDay() { return day; }
+    public void setDay(long day) { this.day = day; }
+
+    public double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+
+    public int getInvestmentCount() { return investmentCount; }
+    public void setInvestmentCount(int investmentCount) { this.investmentCount = investmentCount; }
+}
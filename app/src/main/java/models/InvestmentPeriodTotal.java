@@ -0,0 +1,27 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Total des investissements d'un utilisateur sur une période (jour, semaine ou mois)
+ */
+public class InvestmentPeriodTotal {
+    @ColumnInfo(name = "bucket")
+    private long bucket; // Index de la période : jour, semaine ou mois depuis 1970
+
+    @ColumnInfo(name = "total_amount")
+    private double totalAmount;
+
+    @ColumnInfo(name = "investment_count")
+    private int investmentCount;
+
+    // Getters et Setters
+    public long getBucket() { return bucket; }
+    public void setBucket(long bucket) { this.bucket = bucket; }
+
+    public double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+
+    public int getInvestmentCount() { return investmentCount; }
+    public void setInvestmentCount(int investmentCount) { this.investmentCount = investmentCount; }
+}
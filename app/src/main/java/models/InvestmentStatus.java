@@ -0,0 +1,65 @@
+package com.crowdfundpro.android.data.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Statut d'un investissement : libellé échangé avec le serveur, petit entier stocké en base (voir StatusConverters)
+ */
+public enum InvestmentStatus {
+    @SerializedName("PENDING")
+    PENDING(Code.PENDING),
+
+    @SerializedName("COMPLETED")
+    COMPLETED(Code.COMPLETED),
+
+    @SerializedName("FAILED")
+    FAILED(Code.FAILED),
+
+    @SerializedName("REFUNDED")
+    REFUNDED(Code.REFUNDED),
+
+    @SerializedName("CANCELLED")
+    CANCELLED(Code.CANCELLED);
+
+    /**
+     * Valeurs stockées dans la colonne status, utilisables comme constantes dans les requêtes SQL
+     * Ne jamais renuméroter : ces valeurs sont persistées
+     */
+    public static final class Code {
+        public static final int PENDING = 1;
+        public static final int COMPLETED = 2;
+        public static final int FAILED = 3;
+        public static final int REFUNDED = 4;
+        public static final int CANCELLED = 5;
+
+        private Code() {}
+    }
+
+    private final int code;
+
+    InvestmentStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() { return code; }
+
+    /**
+     * Statut correspondant à une valeur stockée (null si inconnue)
+     */
+    public static InvestmentStatus fromCode(int code) {
+        switch (code) {
+            case Code.PENDING:
+                return PENDING;
+            case Code.COMPLETED:
+                return COMPLETED;
+            case Code.FAILED:
+                return FAILED;
+            case Code.REFUNDED:
+                return REFUNDED;
+            case Code.CANCELLED:
+                return CANCELLED;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Agrégat des investissements d'un utilisateur pour un statut (une ligne du GROUP BY status)
+ */
+public class InvestmentStatusTotal {
+    @ColumnInfo(name = "status")
+    private InvestmentStatus status;
+
+    @ColumnInfo(name = "investment_count")
+    private int investmentCount;
+
+    @ColumnInfo(name = "total_amount")
+    private double totalAmount;
+
+    // Getters et Setters
+    public InvestmentStatus getStatus() { return status; }
+    public void setStatus(InvestmentStatus status) { this.status = status; }
+
+    public int getInvestmentCount() { return investmentCount; }
+    public void setInvestmentCount(int investmentCount) { this.investmentCount = investmentCount; }
+
+    public double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+}
@@ -0,0 +1,64 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Ligne allégée pour les listes d'investissements : champs de l'investissement
+ * accompagnés du titre et de l'image du projet, lus en une seule requête (jointure)
+ */
+public class InvestmentWithProject {
+    @ColumnInfo(name = "id")
+    private int id;
+
+    @ColumnInfo(name = "project_id")
+    private int projectId;
+
+    @ColumnInfo(name = "user_id")
+    private int userId;
+
+    @ColumnInfo(name = "amount")
+    private double amount;
+
+    @ColumnInfo(name = "status")
+    private InvestmentStatus status;
+
+    @ColumnInfo(name = "transaction_id")
+    private String transactionId;
+
+    @ColumnInfo(name = "created_at")
+    private long createdAt;
+
+    @ColumnInfo(name = "project_title")
+    private String projectTitle; // Null si le projet n'est pas encore en cache
+
+    @ColumnInfo(name = "project_image_url")
+    private String projectImageUrl;
+
+    // Getters et Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public int getProjectId() { return projectId; }
+    public void setProjectId(int projectId) { this.projectId = projectId; }
+
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public double getAmount() { return amount; }
+    public void setAmount(double amount) { this.amount = amount; }
+
+    public InvestmentStatus getStatus() { return status; }
+    public void setStatus(InvestmentStatus status) { this.status = status; }
+
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public String getProjectTitle() { return projectTitle; }
+    public void setProjectTitle(String projectTitle) { this.projectTitle = projectTitle; }
+
+    public String getProjectImageUrl() { return projectImageUrl; }
+    public void setProjectImageUrl(String projectImageUrl) { this.projectImageUrl = projectImageUrl; }
+}
@@ -4,6 +4,8 @@ import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Entité Room représentant un projet dans la base de données locale
@@ -12,7 +14,20 @@ import androidx.room.ForeignKey;
         foreignKeys = @ForeignKey(entity = User.class,
                                   parentColumns = "id",
                                   childColumns = "creator_id",
-                                  onDelete = ForeignKey.CASCADE))
+                                  onDelete = ForeignKey.CASCADE),
+        indices = {
+            // Projets actifs non échus
+            @Index(value = {"status", "end_date"}),
+            // Filtres triés par date de création
+            @Index(value = {"status", "created_at"}),
+            @Index(value = {"category_id", "created_at"}),
+            @Index(value = {"creator_id", "created_at"}),
+            // Projets les plus populaires et liste complète
+            @Index(value = {"current_amount"}),
+            @Index(value = {"created_at"}),
+            // Éviction du cache : projets les moins récemment mis à jour
+            @Index(value = {"updated_at"})
+        })
 public class Project {
     @PrimaryKey
     @ColumnInfo(name = "id")
@@ -31,7 +46,7 @@ public class Project {
     private double currentAmount;
 
     @ColumnInfo(name = "status")
-    private String status; // ACTIVE, COMPLETED, CANCELLED
+    private ProjectStatus status; // Stocké comme entier (StatusConverters)
 
     @ColumnInfo(name = "creator_id")
     private int creatorId;
@@ -51,11 +66,15 @@ public class Project {
     @ColumnInfo(name = "updated_at")
     private long updatedAt;
 
+    // Marqueur de suppression (tombstone) renvoyé par la synchronisation différentielle, jamais stocké
+    @Ignore
+    private boolean deleted;
+
     // Constructeurs
     public Project() {}
 
     public Project(int id, String title, String description, double targetAmount, 
-                   double currentAmount, String status, int creatorId, int categoryId,
+                   double currentAmount, ProjectStatus status, int creatorId, int categoryId,
                    String imageUrl, long createdAt, long endDate, long updatedAt) {
         this.id = id;
         this.title = title;
@@ -87,8 +106,8 @@ public class Project {
     public double getCurrentAmount() { return currentAmount; }
     public void setCurrentAmount(double currentAmount) { this.currentAmount = currentAmount; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public ProjectStatus getStatus() { return status; }
+    public void setStatus(ProjectStatus status) { this.status = status; }
 
     public int getCreatorId() { return creatorId; }
     public void setCreatorId(int creatorId) { this.creatorId = creatorId; }
@@ -108,6 +127,9 @@ public class Project {
     public long getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
 
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
     // Méthodes utilitaires
     public double getProgressPercentage() {
         if (targetAmount <= 0) return 0;
@@ -115,11 +137,11 @@ public class Project {
     }
 
     public boolean isActive() {
-        return "ACTIVE".equals(status);
+        return status == ProjectStatus.ACTIVE;
     }
 
     public boolean isCompleted() {
-        return "COMPLETED".equals(status);
+        return status == ProjectStatus.COMPLETED;
     }
 }
 
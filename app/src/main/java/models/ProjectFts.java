@@ -0,0 +1,56 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import java.util.Locale;
+
+/**
+ * Index plein texte (FTS4) sur le titre et la description des projets
+ * Table à contenu externe : Room crée les triggers qui la synchronisent avec la table projects
+ */
+@Fts4(contentEntity = Project.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "projects_fts")
+public class ProjectFts {
+    @ColumnInfo(name = "title")
+    private String title;
+
+    @ColumnInfo(name = "description")
+    private String description;
+
+    // Getters et Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    /**
+     * Conversion d'une saisie utilisateur en expression MATCH
+     * Chaque mot devient un préfixe ("solai" trouve "solaire") et tous les mots sont requis ;
+     * la ponctuation et les opérateurs FTS sont ignorés. Retourne null si aucun mot n'est exploitable
+     */
+    public static String toMatchQuery(String searchQuery) {
+        return toMatchQuery(searchQuery, "");
+    }
+
+    /**
+     * Même expression, limitée à la colonne title (tous les mots doivent figurer dans le titre)
+     */
+    public static String toTitleMatchQuery(String searchQuery) {
+        return toMatchQuery(searchQuery, "title:");
+    }
+
+    private static String toMatchQuery(String searchQuery, String columnFilter) {
+        if (searchQuery == null) return null;
+
+        StringBuilder match = new StringBuilder();
+        for (String token : searchQuery.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(columnFilter).append(token).append('*');
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+}
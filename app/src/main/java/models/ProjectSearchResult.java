@@ -0,0 +1,59 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Résultat de recherche plein texte : le projet et les statistiques matchinfo('pcnx') de la ligne
+ */
+public class ProjectSearchResult {
+    // Poids des colonnes de projects_fts, dans l'ordre de déclaration (titre, description)
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+
+    @Embedded
+    private Project project;
+
+    @ColumnInfo(name = "match_info")
+    private byte[] matchInfo;
+
+    // Getters et Setters
+    public Project getProject() { return project; }
+    public void setProject(Project project) { this.project = project; }
+
+    public byte[] getMatchInfo() { return matchInfo; }
+    public void setMatchInfo(byte[] matchInfo) { this.matchInfo = matchInfo; }
+
+    /**
+     * Score de pertinence de type TF-IDF calculé à partir de matchinfo('pcnx')
+     * Pour chaque mot et chaque colonne : occurrences dans la ligne, pondérées par la rareté du mot
+     * dans l'ensemble des projets et par le poids de la colonne (un mot du titre compte double)
+     */
+    public double getScore() {
+        if (matchInfo == null || matchInfo.length < 12) return 0;
+
+        // Entiers non signés 32 bits dans l'ordre natif de la plateforme
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+        long rowCount = buffer.getInt(8) & 0xFFFFFFFFL;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int offset = 12 + 12 * (phrase * columnCount + column);
+                if (offset + 12 > matchInfo.length) return score;
+
+                long hitsInRow = buffer.getInt(offset) & 0xFFFFFFFFL;
+                long rowsWithHits = buffer.getInt(offset + 8) & 0xFFFFFFFFL;
+                if (hitsInRow == 0) continue;
+
+                double idf = Math.log(1.0 + (double) rowCount / Math.max(1, rowsWithHits));
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                score += weight * hitsInRow * idf;
+            }
+        }
+        return score;
+    }
+}
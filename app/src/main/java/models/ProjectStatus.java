@@ -0,0 +1,58 @@
+package com.crowdfundpro.android.data.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Statut d'un projet : libellé échangé avec le serveur, petit entier stocké en base (voir StatusConverters)
+ */
+public enum ProjectStatus {
+    @SerializedName("ACTIVE")
+    ACTIVE(Code.ACTIVE),
+
+    @SerializedName("COMPLETED")
+    COMPLETED(Code.COMPLETED),
+
+    @SerializedName("CANCELLED")
+    CANCELLED(Code.CANCELLED),
+
+    // Libellé absent ou non reconnu par cette version de l'application : le projet reste listé
+    UNKNOWN(Code.UNKNOWN);
+
+    /**
+     * Valeurs stockées dans la colonne status, utilisables comme constantes dans les requêtes SQL
+     * Ne jamais renuméroter : ces valeurs sont persistées
+     * NULL reste réservé aux ébauches de projets (voir ReferencedParents)
+     */
+    public static final class Code {
+        public static final int UNKNOWN = 0;
+        public static final int ACTIVE = 1;
+        public static final int COMPLETED = 2;
+        public static final int CANCELLED = 3;
+
+        private Code() {}
+    }
+
+    private final int code;
+
+    ProjectStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() { return code; }
+
+    /**
+     * Statut correspondant à une valeur stockée (UNKNOWN si inconnue)
+     */
+    public static ProjectStatus fromCode(int code) {
+        switch (code) {
+            case Code.ACTIVE:
+                return ACTIVE;
+            case Code.COMPLETED:
+                return COMPLETED;
+            case Code.CANCELLED:
+                return CANCELLED;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
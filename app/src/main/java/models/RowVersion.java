@@ -0,0 +1,21 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Version d'une ligne en cache : identifiant et date de dernière modification côté serveur
+ */
+public class RowVersion {
+    @ColumnInfo(name = "id")
+    private int id;
+
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
+
+    // Getters et Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,49 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Point de reprise de la synchronisation différentielle d'une entité
+ * high_water_mark est le plus grand updated_at reçu du serveur (horloge serveur, pas celle de l'appareil)
+ */
+@Entity(tableName = "sync_state")
+public class SyncState {
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "entity")
+    private String entity = "";
+
+    @ColumnInfo(name = "high_water_mark")
+    private long highWaterMark;
+
+    @ColumnInfo(name = "full_sync_bytes")
+    private long fullSyncBytes; // Taille de la dernière synchronisation complète (-1 si inconnue)
+
+    @ColumnInfo(name = "last_sync_at")
+    private long lastSyncAt;
+
+    // Constructeurs
+    public SyncState() {}
+
+    public SyncState(@NonNull String entity) {
+        this.entity = entity;
+        this.fullSyncBytes = -1;
+    }
+
+    // Getters et Setters
+    @NonNull
+    public String getEntity() { return entity; }
+    public void setEntity(@NonNull String entity) { this.entity = entity; }
+
+    public long getHighWaterMark() { return highWaterMark; }
+    public void setHighWaterMark(long highWaterMark) { this.highWaterMark = highWaterMark; }
+
+    public long getFullSyncBytes() { return fullSyncBytes; }
+    public void setFullSyncBytes(long fullSyncBytes) { this.fullSyncBytes = fullSyncBytes; }
+
+    public long getLastSyncAt() { return lastSyncAt; }
+    public void setLastSyncAt(long lastSyncAt) { this.lastSyncAt = lastSyncAt; }
+}
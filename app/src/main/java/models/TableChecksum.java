@@ -0,0 +1,41 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Empreinte d'un ensemble de lignes : nombre, somme des identifiants et dernière modification
+ * Change après un ajout, une suppression, un remplacement à nombre constant ou une mise à jour en place
+ */
+public class TableChecksum {
+    @ColumnInfo(name = "row_count")
+    private int rowCount;
+
+    @ColumnInfo(name = "id_sum")
+    private long idSum;
+
+    @ColumnInfo(name = "max_updated_at")
+    private long maxUpdatedAt;
+
+    public TableChecksum() {}
+
+    public TableChecksum(int rowCount, long idSum, long maxUpdatedAt) {
+        this.rowCount = rowCount;
+        this.idSum = idSum;
+        this.maxUpdatedAt = maxUpdatedAt;
+    }
+
+    // Getters et Setters
+    public int getRowCount() { return rowCount; }
+    public void setRowCount(int rowCount) { this.rowCount = rowCount; }
+
+    public long getIdSum() { return idSum; }
+    public void setIdSum(long idSum) { this.idSum = idSum; }
+
+    public long getMaxUpdatedAt() { return maxUpdatedAt; }
+    public void setMaxUpdatedAt(long maxUpdatedAt) { this.maxUpdatedAt = maxUpdatedAt; }
+
+    public boolean matches(TableChecksum other) {
+        return other != null && rowCount == other.rowCount && idSum == other.idSum
+            && maxUpdatedAt == other.maxUpdatedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.crowdfundpro.android.data.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Table de synthèse : totaux des investissements d'un utilisateur présents en base locale
+ * Maintenue par des triggers SQL sur la table investments (voir DatabaseTriggers), jamais écrite par l'application
+ */
+@Entity(tableName = "user_funding_totals")
+public class UserFundingTotal {
+    @PrimaryKey
+    @ColumnInfo(name = "user_id")
+    private int userId;
+
+    @ColumnInfo(name = "investment_count")
+    private int investmentCount;
+
+    @ColumnInfo(name = "completed_amount")
+    private double completedAmount;
+
+    @ColumnInfo(name = "pending_amount")
+    private double pendingAmount;
+
+    // Getters et Setters
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public int getInvestmentCount() { return investmentCount; }
+    public void setInvestmentCount(int investmentCount) { this.investmentCount = investmentCount; }
+
+    public double getCompletedAmount() { return completedAmount; }
+    public void setCompletedAmount(double completedAmount) { this.completedAmount = completedAmount; }
+
+    public double getPendingAmount() { return pendingAmount; }
+    public void setPendingAmount(double pendingAmount) { this.pendingAmount = pendingAmount; }
+}
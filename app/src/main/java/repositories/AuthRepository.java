@@ -1,8 +1,11 @@
 package com.crowdfundpro.android.data;
 
 import com.crowdfundpro.android.data.api.AuthApiService;
+import com.crowdfundpro.android.data.api.ConditionalGetInterceptor;
 import com.crowdfundpro.android.data.db.UserDao;
 import com.crowdfundpro.android.data.models.User;
+import com.crowdfundpro.android.utils.AppExecutors;
+import io.reactivex.rxjava3.core.Flowable;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -15,10 +18,13 @@ public class AuthRepository {
     
     private AuthApiService authApiService;
     private UserDao userDao;
+    private final ConditionalGetInterceptor conditionalGet;
+    private final AppExecutors executors = AppExecutors.getInstance();
     
-    public AuthRepository(AuthApiService authApiService, UserDao userDao) {
+    public AuthRepository(AuthApiService authApiService, UserDao userDao, ConditionalGetInterceptor conditionalGet) {
         this.authApiService = authApiService;
         this.userDao = userDao;
+        this.conditionalGet = conditionalGet;
     }
     
     /**
@@ -51,7 +57,7 @@ public class AuthRepository {
                     
                     // Sauvegarder l'utilisateur en local
                     if (authResponse.getUser() != null) {
-                        new Thread(() -> userDao.insertUser(authResponse.getUser())).start();
+                        executors.diskWrite().execute(() -> userDao.upsertUser(authResponse.getUser()));
                     }
                     
                     callback.onSuccess(authResponse);
@@ -81,7 +87,7 @@ public class AuthRepository {
                     
                     // Sauvegarder l'utilisateur en local
                     if (authResponse.getUser() != null) {
-                        new Thread(() -> userDao.insertUser(authResponse.getUser())).start();
+                        executors.diskWrite().execute(() -> userDao.upsertUser(authResponse.getUser()));
                     }
                     
                     callback.onSuccess(authResponse);
@@ -100,15 +106,15 @@ public class AuthRepository {
     /**
      * Récupération du profil utilisateur
      */
-    public void getUserProfile(String token, UserCallback callback) {
-        authApiService.getUserProfile("Bearer " + token).enqueue(new Callback<User>() {
+    public void getUserProfile(UserCallback callback) {
+        authApiService.getUserProfile().enqueue(new Callback<User>() {
             @Override
             public void onResponse(Call<User> call, Response<User> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     User user = response.body();
                     
                     // Mettre à jour l'utilisateur en local
-                    new Thread(() -> userDao.updateUser(user)).start();
+                    executors.diskWrite().execute(() -> userDao.updateUser(user));
                     
                     callback.onSuccess(user);
                 } else {
@@ -126,15 +132,15 @@ public class AuthRepository {
     /**
      * Mise à jour du profil utilisateur
      */
-    public void updateUserProfile(String token, User user, UserCallback callback) {
-        authApiService.updateUserProfile("Bearer " + token, user).enqueue(new Callback<User>() {
+    public void updateUserProfile(User user, UserCallback callback) {
+        authApiService.updateUserProfile(user).enqueue(new Callback<User>() {
             @Override
             public void onResponse(Call<User> call, Response<User> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     User updatedUser = response.body();
                     
                     // Mettre à jour l'utilisateur en local
-                    new Thread(() -> userDao.updateUser(updatedUser)).start();
+                    executors.diskWrite().execute(() -> userDao.updateUser(updatedUser));
                     
                     callback.onSuccess(updatedUser);
                 } else {
@@ -153,18 +159,21 @@ public class AuthRepository {
      * Déconnexion utilisateur
      */
     public void logout(String token) {
+        // Réponses mémorisées de la session : le cache local qui les reflétait est vidé ci-dessous
+        conditionalGet.clear();
+        
         // Appel API pour déconnexion côté serveur
         authApiService.logout("Bearer " + token).enqueue(new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> call, Response<Void> response) {
                 // Nettoyage des données locales
-                new Thread(() -> userDao.deleteAllUsers()).start();
+                executors.diskWrite().execute(() -> userDao.deleteAllUsers());
             }
             
             @Override
             public void onFailure(Call<Void> call, Throwable t) {
                 // Même en cas d'échec de l'API, nettoyer les données locales
-                new Thread(() -> userDao.deleteAllUsers()).start();
+                executors.diskWrite().execute(() -> userDao.deleteAllUsers());
             }
         });
     }
@@ -175,5 +184,11 @@ public class AuthRepository {
     public User getLocalUser(int userId) {
         return userDao.getUserById(userId);
     }
+    
+    /**
+     * Observation de l'utilisateur en base locale (mis à jour à chaque écriture)
+     */
+    public Flowable<User> observeLocalUser(int userId) {
+        return userDao.observeUserById(userId);
+    }
 }
-
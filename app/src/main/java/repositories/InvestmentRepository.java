@@ -2,11 +2,22 @@ package com.crowdfundpro.android.data;
 
 import com.crowdfundpro.android.data.api.InvestmentApiService;
 import com.crowdfundpro.android.data.db.InvestmentDao;
+import com.crowdfundpro.android.data.db.WriteBehindBuffer;
 import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentPeriodTotal;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.InvestmentStatusTotal;
+import com.crowdfundpro.android.data.models.InvestmentWithProject;
+import com.crowdfundpro.android.utils.AppExecutors;
+import io.reactivex.rxjava3.core.Flowable;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * Repository pour la gestion des investissements
@@ -16,12 +27,26 @@ public class InvestmentRepository {
     
     private InvestmentApiService investmentApiService;
     private InvestmentDao investmentDao;
+    private WriteBehindBuffer writeBuffer;
+    private final AppExecutors executors = AppExecutors.getInstance();
     
-    public InvestmentRepository(InvestmentApiService investmentApiService, InvestmentDao investmentDao) {
+    // Requêtes identiques en vol regroupées en un seul appel
+    private final SingleFlight singleFlight = new SingleFlight();
+    
+    public InvestmentRepository(InvestmentApiService investmentApiService, InvestmentDao investmentDao,
+                                WriteBehindBuffer writeBuffer) {
         this.investmentApiService = investmentApiService;
         this.investmentDao = investmentDao;
+        this.writeBuffer = writeBuffer;
     }
     
+    /**
+     * Granularité des séries temporelles d'investissement
+     */
+    public enum Period { DAY, WEEK, MONTH }
+    
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    
     /**
      * Interface pour les callbacks d'investissement unique
      */
@@ -49,15 +74,15 @@ public class InvestmentRepository {
     /**
      * Création d'un nouvel investissement
      */
-    public void createInvestment(String token, InvestmentApiService.InvestmentRequest request, InvestmentCallback callback) {
-        investmentApiService.createInvestment("Bearer " + token, request).enqueue(new Callback<Investment>() {
+    public void createInvestment(InvestmentApiService.InvestmentRequest request, InvestmentCallback callback) {
+        investmentApiService.createInvestment(request).enqueue(new Callback<Investment>() {
             @Override
             public void onResponse(Call<Investment> call, Response<Investment> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     Investment investment = response.body();
                     
                     // Sauvegarder l'investissement en local
-                    new Thread(() -> investmentDao.insertInvestment(investment)).start();
+                    writeBuffer.enqueueInvestments(Collections.singletonList(investment));
                     
                     callback.onSuccess(investment);
                 } else {
@@ -73,116 +98,124 @@ public class InvestmentRepository {
     }
     
     /**
-     * Récupération des investissements de l'utilisateur
+     * Récupération des investissements de l'utilisateur connecté
      */
-    public void getUserInvestments(String token, InvestmentListCallback callback) {
-        investmentApiService.getUserInvestments("Bearer " + token).enqueue(new Callback<List<Investment>>() {
-            @Override
-            public void onResponse(Call<List<Investment>> call, Response<List<Investment>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Investment> investments = response.body();
-                    
-                    // Sauvegarder les investissements en local
-                    new Thread(() -> investmentDao.insertInvestments(investments)).start();
-                    
-                    callback.onSuccess(investments);
-                } else {
-                    callback.onError("Erreur lors de la récupération des investissements: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<List<Investment>> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    // TODO: Récupérer l'ID utilisateur depuis le token
-                    int userId = 1; // Placeholder
-                    List<Investment> localInvestments = investmentDao.getInvestmentsByUser(userId);
-                    if (!localInvestments.isEmpty()) {
-                        callback.onSuccess(localInvestments);
+    public RequestHandle getUserInvestments(int userId, InvestmentListCallback callback) {
+        // Clé propre à l'utilisateur : un appel en vol d'une session précédente n'est jamais partagé
+        return singleFlight.enqueue("user_investments:" + userId,
+            () -> investmentApiService.getUserInvestments(null),
+            new SingleFlight.Handler<List<Investment>, List<Investment>>() {
+                @Override
+                public void onResponse(Response<List<Investment>> response, SingleFlight.Result<List<Investment>> result) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        List<Investment> investments = response.body();
+                        
+                        // Sauvegarder les investissements en local
+                        writeBuffer.enqueueInvestments(investments);
+                        
+                        result.success(investments);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération des investissements: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<List<Investment>> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        List<Investment> localInvestments = investmentDao.getInvestmentsByUser(userId);
+                        if (!localInvestments.isEmpty()) {
+                            result.success(localInvestments);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
     }
     
     /**
      * Récupération des détails d'un investissement
      */
-    public void getInvestment(String token, int investmentId, InvestmentCallback callback) {
-        investmentApiService.getInvestment("Bearer " + token, investmentId).enqueue(new Callback<Investment>() {
-            @Override
-            public void onResponse(Call<Investment> call, Response<Investment> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Investment investment = response.body();
-                    
-                    // Mettre à jour l'investissement en local
-                    new Thread(() -> investmentDao.updateInvestment(investment)).start();
-                    
-                    callback.onSuccess(investment);
-                } else {
-                    callback.onError("Erreur lors de la récupération de l'investissement: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<Investment> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    Investment localInvestment = investmentDao.getInvestmentById(investmentId);
-                    if (localInvestment != null) {
-                        callback.onSuccess(localInvestment);
+    public RequestHandle getInvestment(int investmentId, InvestmentCallback callback) {
+        return singleFlight.enqueue("investment:" + investmentId,
+            () -> investmentApiService.getInvestment(investmentId),
+            new SingleFlight.Handler<Investment, Investment>() {
+                @Override
+                public void onResponse(Response<Investment> response, SingleFlight.Result<Investment> result) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        Investment investment = response.body();
+                        
+                        // Mettre à jour l'investissement en local
+                        executors.diskWrite().execute(() -> investmentDao.updateInvestment(investment));
+                        
+                        result.success(investment);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération de l'investissement: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<Investment> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        Investment localInvestment = investmentDao.getInvestmentById(investmentId);
+                        if (localInvestment != null) {
+                            result.success(localInvestment);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
     }
     
     /**
      * Récupération des investissements pour un projet
      */
-    public void getProjectInvestments(int projectId, InvestmentListCallback callback) {
-        investmentApiService.getProjectInvestments(projectId).enqueue(new Callback<List<Investment>>() {
-            @Override
-            public void onResponse(Call<List<Investment>> call, Response<List<Investment>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Investment> investments = response.body();
-                    
-                    // Sauvegarder les investissements en local
-                    new Thread(() -> investmentDao.insertInvestments(investments)).start();
-                    
-                    callback.onSuccess(investments);
-                } else {
-                    callback.onError("Erreur lors de la récupération des investissements du projet: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<List<Investment>> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    List<Investment> localInvestments = investmentDao.getInvestmentsByProject(projectId);
-                    if (!localInvestments.isEmpty()) {
-                        callback.onSuccess(localInvestments);
+    public RequestHandle getProjectInvestments(int projectId, InvestmentListCallback callback) {
+        return singleFlight.enqueue("project_investments:" + projectId,
+            () -> investmentApiService.getProjectInvestments(projectId),
+            new SingleFlight.Handler<List<Investment>, List<Investment>>() {
+                @Override
+                public void onResponse(Response<List<Investment>> response, SingleFlight.Result<List<Investment>> result) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        List<Investment> investments = response.body();
+                        
+                        // Sauvegarder les investissements en local
+                        writeBuffer.enqueueInvestments(investments);
+                        
+                        result.success(investments);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération des investissements du projet: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<List<Investment>> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        List<Investment> localInvestments = investmentDao.getInvestmentsByProject(projectId);
+                        if (!localInvestments.isEmpty()) {
+                            result.success(localInvestments);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
     }
     
     /**
      * Confirmation de paiement Stripe
      */
-    public void confirmPayment(String token, int investmentId, 
+    public void confirmPayment(int investmentId, 
                               InvestmentApiService.PaymentConfirmationRequest request, 
                               PaymentConfirmationCallback callback) {
-        investmentApiService.confirmPayment("Bearer " + token, investmentId, request)
+        investmentApiService.confirmPayment(investmentId, request)
                 .enqueue(new Callback<InvestmentApiService.PaymentConfirmationResponse>() {
             @Override
             public void onResponse(Call<InvestmentApiService.PaymentConfirmationResponse> call, 
@@ -192,7 +225,7 @@ public class InvestmentRepository {
                     
                     // Mettre à jour l'investissement en local si fourni
                     if (confirmationResponse.getInvestment() != null) {
-                        new Thread(() -> investmentDao.updateInvestment(confirmationResponse.getInvestment())).start();
+                        executors.diskWrite().execute(() -> investmentDao.updateInvestment(confirmationResponse.getInvestment()));
                     }
                     
                     callback.onSuccess(confirmationResponse);
@@ -211,20 +244,20 @@ public class InvestmentRepository {
     /**
      * Annulation d'un investissement
      */
-    public void cancelInvestment(String token, int investmentId, InvestmentCallback callback) {
-        investmentApiService.cancelInvestment("Bearer " + token, investmentId).enqueue(new Callback<Void>() {
+    public void cancelInvestment(int investmentId, InvestmentCallback callback) {
+        investmentApiService.cancelInvestment(investmentId).enqueue(new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> call, Response<Void> response) {
                 if (response.isSuccessful()) {
                     // Mettre à jour le statut en local
-                    new Thread(() -> {
+                    executors.diskWrite().execute(() -> {
                         Investment investment = investmentDao.getInvestmentById(investmentId);
                         if (investment != null) {
-                            investment.setStatus("CANCELLED");
+                            investment.setStatus(InvestmentStatus.CANCELLED);
                             investmentDao.updateInvestment(investment);
-                            callback.onSuccess(investment);
+                            executors.mainThread().execute(() -> callback.onSuccess(investment));
                         }
-                    }).start();
+                    });
                 } else {
                     callback.onError("Erreur lors de l'annulation de l'investissement: " + response.message());
                 }
@@ -244,11 +277,128 @@ public class InvestmentRepository {
         return investmentDao.getInvestmentsByUser(userId);
     }
     
+    /**
+     * Récupération des derniers investissements d'un utilisateur depuis la base de données locale
+     */
+    public List<Investment> getLocalRecentInvestments(int userId, int limit) {
+        return investmentDao.getRecentInvestmentsByUser(userId, limit);
+    }
+    
     /**
      * Calcul du montant total investi par un utilisateur
      */
     public double getTotalInvestedByUser(int userId) {
         return investmentDao.getTotalInvestedByUser(userId);
     }
+    
+    /**
+     * Observation des investissements d'un utilisateur en base locale (mis à jour à chaque écriture)
+     */
+    public Flowable<List<Investment>> observeUserInvestments(int userId) {
+        return investmentDao.observeInvestmentsByUser(userId);
+    }
+    
+    /**
+     * Observation des investissements d'un utilisateur avec le titre de leur projet (jointure en base)
+     */
+    public Flowable<List<InvestmentWithProject>> observeUserInvestmentRows(int userId) {
+        return investmentDao.observeInvestmentsWithProjectByUser(userId);
+    }
+    
+    /**
+     * Observation des investissements d'un projet avec le titre du projet
+     */
+    public Flowable<List<InvestmentWithProject>> observeProjectInvestmentRows(int projectId) {
+        return investmentDao.observeInvestmentsWithProjectByProject(projectId);
+    }
+    
+    /**
+     * Observation des totaux par statut des investissements d'un utilisateur (calculés en SQL)
+     */
+    public Flowable<List<InvestmentStatusTotal>> observeInvestmentTotalsByStatus(int userId) {
+        return investmentDao.observeInvestmentTotalsByStatus(userId);
+    }
+    
+    /**
+     * Observation des montants investis sur les bucketCount dernières périodes (la plus ancienne en premier)
+     * Lue dans la table de synthèse journalière : le coût ne dépend pas de la longueur de l'historique
+     * Les périodes sans investissement sont présentes avec un total nul
+     */
+    public Flowable<List<InvestmentPeriodTotal>> observeInvestmentSeries(int userId, Period period, int bucketCount) {
+        long today = System.currentTimeMillis() / DAY_MS;
+        long firstBucket = bucketOf(today, period) - bucketCount + 1;
+        long fromDay = firstDayOf(firstBucket, period);
+        
+        Flowable<List<InvestmentPeriodTotal>> totals;
+        switch (period) {
+            case DAY:
+                totals = investmentDao.observeDailyTotals(userId, fromDay);
+                break;
+            case WEEK:
+                totals = investmentDao.observeWeeklyTotals(userId, fromDay);
+                break;
+            default:
+                totals = investmentDao.observeMonthlyTotals(userId, fromDay);
+                break;
+        }
+        return totals.map(rows -> fillGaps(rows, firstBucket, bucketCount));
+    }
+    
+    /**
+     * Index de période d'un jour, avec la même numérotation que les requêtes SQL
+     */
+    private static long bucketOf(long day, Period period) {
+        switch (period) {
+            case DAY:
+                return day;
+            case WEEK:
+                return (day + 3) / 7;
+            default:
+                Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                calendar.setTimeInMillis(day * DAY_MS);
+                return (calendar.get(Calendar.YEAR) - 1970) * 12L + calendar.get(Calendar.MONTH);
+        }
+    }
+    
+    /**
+     * Premier jour d'une période
+     */
+    private static long firstDayOf(long bucket, Period period) {
+        switch (period) {
+            case DAY:
+                return bucket;
+            case WEEK:
+                return bucket * 7 - 3;
+            default:
+                Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                calendar.clear();
+                calendar.set((int) (1970 + bucket / 12), (int) (bucket % 12), 1);
+                return calendar.getTimeInMillis() / DAY_MS;
+        }
+    }
+    
+    private static List<InvestmentPeriodTotal> fillGaps(List<InvestmentPeriodTotal> rows, long firstBucket, int bucketCount) {
+        List<InvestmentPeriodTotal> series = new ArrayList<>(bucketCount);
+        int next = 0;
+        for (long bucket = firstBucket; bucket < firstBucket + bucketCount; bucket++) {
+            while (next < rows.size() && rows.get(next).getBucket() < bucket) {
+                next++;
+            }
+            if (next < rows.size() && rows.get(next).getBucket() == bucket) {
+                series.add(rows.get(next++));
+            } else {
+                InvestmentPeriodTotal empty = new InvestmentPeriodTotal();
+                empty.setBucket(bucket);
+                series.add(empty);
+            }
+        }
+        return series;
+    }
+    
+    /**
+     * Observation des investissements d'un projet en base locale
+     */
+    public Flowable<List<Investment>> observeProjectInvestments(int projectId) {
+        return investmentDao.observeInvestmentsByProject(projectId);
+    }
 }
-
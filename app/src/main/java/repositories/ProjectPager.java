@@ -0,0 +1,358 @@
+package com.crowdfundpro.android.data;
+
+import com.crowdfundpro.android.data.api.ConditionalGetInterceptor;
+import com.crowdfundpro.android.data.api.ProjectApiService;
+import com.crowdfundpro.android.data.db.ProjectDao;
+import com.crowdfundpro.android.data.db.WriteBehindBuffer;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import com.crowdfundpro.android.utils.AppExecutors;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Flux paginé de projets pour le défilement infini
+ * - en ligne : première page puis suivi du lien next renvoyé par l'API, chaque page étant mise en cache
+ * - hors ligne : pagination par clé (created_at, id) sur la base locale
+ * Seules maxPages pages de projets restent en mémoire : les pages qui sortent de la fenêtre ne gardent que
+ * leurs identifiants et sont relues en base (une requête IN) si l'utilisateur revient dessus
+ * Toutes les méthodes et tous les callbacks s'exécutent sur le thread principal
+ */
+public class ProjectPager {
+    
+    /**
+     * Réception du contenu courant de la fenêtre
+     */
+    public interface Listener {
+        void onWindowChanged(List<Project> projects);
+        void onError(String error);
+    }
+    
+    private final ProjectApiService projectApiService;
+    private final ProjectDao projectDao;
+    private final WriteBehindBuffer writeBuffer;
+    private final ConditionalGetInterceptor conditionalGet;
+    private final ProjectRepository projectRepository;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    
+    private final Integer categoryId;
+    private final String searchQuery;
+    private final ProjectStatus status;
+    private final int pageSize;
+    private final int maxPages;
+    
+    // Fenêtre de pages en mémoire, de la plus récente à la plus ancienne
+    private final LinkedList<List<Project>> pages = new LinkedList<>();
+    private final Set<Integer> loadedIds = new HashSet<>();
+    
+    // Identifiants des pages sorties de la fenêtre, la plus proche de la fenêtre en tête de pile
+    private final LinkedList<int[]> droppedHead = new LinkedList<>();
+    private final LinkedList<int[]> droppedTail = new LinkedList<>();
+    
+    private Listener listener;
+    private RequestHandle currentRequest;
+    private boolean loading;
+    private boolean started;
+    private String nextUrl;
+    private boolean remoteExhausted;
+    private boolean offline;
+    private boolean localExhausted;
+    
+    ProjectPager(ProjectApiService projectApiService, ProjectDao projectDao, WriteBehindBuffer writeBuffer,
+                 ConditionalGetInterceptor conditionalGet, ProjectRepository projectRepository, Integer categoryId, String searchQuery, ProjectStatus status,
+                 int pageSize, int maxPages) {
+        this.projectApiService = projectApiService;
+        this.projectDao = projectDao;
+        this.writeBuffer = writeBuffer;
+        this.conditionalGet = conditionalGet;
+        this.projectRepository = projectRepository;
+        this.categoryId = categoryId;
+        this.searchQuery = searchQuery != null && !searchQuery.trim().isEmpty() ? searchQuery : null;
+        this.status = status;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+    }
+    
+    /**
+     * Chargement de la première page
+     */
+    public void start(Listener listener) {
+        this.listener = listener;
+        loadNext();
+    }
+    
+    /**
+     * Chargement de la première page depuis la base locale, sans appel réseau
+     * (cache tenu à jour par la synchronisation différentielle) ; les pages suivantes sont lues par clé
+     */
+    public void startFromCache(Listener listener) {
+        this.listener = listener;
+        offline = true;
+        loadNext();
+    }
+    
+    /**
+     * Arrêt du flux : la requête en cours est annulée et plus aucun callback n'est transmis
+     */
+    public void cancel() {
+        RequestHandle.cancel(currentRequest);
+        currentRequest = null;
+        listener = null;
+        loading = false;
+    }
+    
+    public boolean isLoading() {
+        return loading;
+    }
+    
+    /**
+     * Il reste des éléments à charger après la fin de la fenêtre
+     */
+    public boolean hasMore() {
+        if (!droppedTail.isEmpty()) return true;
+        return offline ? !localExhausted : !remoteExhausted;
+    }
+    
+    /**
+     * Des éléments retirés de la fenêtre peuvent être rechargés avant son début
+     */
+    public boolean hasPrevious() {
+        return !droppedHead.isEmpty();
+    }
+    
+    /**
+     * Chargement de la page suivante (fin de liste)
+     */
+    public void loadNext() {
+        if (loading || listener == null || !hasMore()) return;
+        
+        if (!droppedTail.isEmpty()) {
+            restorePage(droppedTail, false);
+        } else if (offline) {
+            loadLocalAfter();
+        } else {
+            loadRemote();
+        }
+    }
+    
+    /**
+     * Rechargement de la page précédente (début de liste), depuis la base locale
+     */
+    public void loadPrevious() {
+        if (loading || listener == null || droppedHead.isEmpty()) return;
+        
+        restorePage(droppedHead, true);
+    }
+    
+    private void loadRemote() {
+        loading = true;
+        Call<ProjectApiService.ProjectListResponse> request = started
+            ? projectApiService.getProjectsPage(nextUrl)
+            : projectApiService.getProjects(1, pageSize, categoryId, searchQuery, status, null);
+        RequestHandle handle = new RequestHandle(request);
+        currentRequest = handle;
+        request.enqueue(new Callback<ProjectApiService.ProjectListResponse>() {
+            @Override
+            public void onResponse(Call<ProjectApiService.ProjectListResponse> call,
+                                   Response<ProjectApiService.ProjectListResponse> response) {
+                if (handle.isCancelled()) return;
+                loading = false;
+                
+                // Page inchangée (304) : reprise de la page déjà analysée, sans téléchargement
+                ProjectApiService.ProjectListResponse unchanged = conditionalGet.notModifiedBody(response);
+                if (unchanged != null || (response.isSuccessful() && response.body() != null)) {
+                    ProjectApiService.ProjectListResponse page = unchanged != null ? unchanged : response.body();
+                    started = true;
+                    nextUrl = page.getNext();
+                    remoteExhausted = nextUrl == null;
+                    
+                    List<Project> results = page.getResults() != null ? page.getResults() : new ArrayList<>();
+                    // Page inchangée renvoyée elle aussi au tampon : ses projets ont pu quitter le cache depuis
+                    writeBuffer.enqueueProjects(results);
+                    if (unchanged == null) {
+                        conditionalGet.remember(response);
+                    }
+                    appendPage(results);
+                    publish();
+                } else {
+                    listener.onError("Erreur lors de la récupération des projets: " + response.message());
+                }
+            }
+            
+            @Override
+            public void onFailure(Call<ProjectApiService.ProjectListResponse> call, Throwable t) {
+                if (handle.isCancelled()) return;
+                loading = false;
+                
+                // Bascule sur la base locale à partir de la fin de la fenêtre courante
+                offline = true;
+                loadNext();
+            }
+        });
+    }
+    
+    /**
+     * Page suivante lue en base par clé (created_at, id) à partir du dernier projet de la fenêtre
+     */
+    private void loadLocalAfter() {
+        final Project last = pages.isEmpty() ? null : lastLoaded();
+        RequestHandle handle = startLocalRead();
+        executors.io().execute(() -> {
+            final List<Project> rows;
+            if (searchQuery != null) {
+                // Recherche hors ligne : résultats classés par pertinence, une seule page
+                rows = last == null
+                    ? projectRepository.searchLocalProjects(searchQuery, pageSize)
+                    : new ArrayList<>();
+            } else {
+                rows = projectDao.getProjectsPageAfter(status, categoryId,
+                    last != null ? last.getCreatedAt() : Long.MAX_VALUE,
+                    last != null ? last.getId() : Integer.MAX_VALUE,
+                    pageSize);
+            }
+            handle.deliver(executors.mainThread(), () -> {
+                loading = false;
+                localExhausted = searchQuery != null || rows.size() < pageSize;
+                
+                if (rows.isEmpty() && pages.isEmpty()) {
+                    listener.onError("Aucun projet disponible hors ligne");
+                    return;
+                }
+                appendPage(rows);
+                publish();
+            });
+        });
+    }
+    
+    /**
+     * Relecture en base de la page sortie de la fenêtre en tête de pile, dans son ordre d'origine
+     * Ses identifiants ne sont retirés de la pile qu'une fois la page relue : après une annulation ou une erreur
+     * de lecture, la page reste disponible pour un nouvel essai
+     */
+    private void restorePage(LinkedList<int[]> dropped, boolean atStart) {
+        final int[] ids = dropped.peek();
+        RequestHandle handle = startLocalRead();
+        executors.io().execute(() -> {
+            final List<Project> rows;
+            try {
+                rows = readPage(ids);
+            } catch (RuntimeException e) {
+                handle.deliver(executors.mainThread(), () -> {
+                    loading = false;
+                    listener.onError("Erreur lors de la relecture des projets: " + e.getMessage());
+                });
+                return;
+            }
+            handle.deliver(executors.mainThread(), () -> {
+                loading = false;
+                if (dropped.peek() == ids) {
+                    dropped.pop();
+                }
+                if (rows.isEmpty()) {
+                    // Tous les projets de la page ont quitté le cache (éviction, suppression) : page suivante
+                    if (atStart) {
+                        loadPrevious();
+                    } else {
+                        loadNext();
+                    }
+                    return;
+                }
+                if (atStart) {
+                    prependPage(rows);
+                } else {
+                    appendPage(rows);
+                }
+                publish();
+            });
+        });
+    }
+    
+    private List<Project> readPage(int[] ids) {
+        List<Integer> idList = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            idList.add(id);
+        }
+        Map<Integer, Project> byId = new HashMap<>();
+        for (Project project : projectDao.getProjectsByIds(idList)) {
+            byId.put(project.getId(), project);
+        }
+        List<Project> rows = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Project project = byId.get(id);
+            if (project != null) {
+                rows.add(project);
+            }
+        }
+        return rows;
+    }
+    
+    private RequestHandle startLocalRead() {
+        loading = true;
+        RequestHandle handle = new RequestHandle(null);
+        currentRequest = handle;
+        return handle;
+    }
+    
+    private Project lastLoaded() {
+        List<Project> lastPage = pages.getLast();
+        return lastPage.get(lastPage.size() - 1);
+    }
+    
+    private void appendPage(List<Project> rows) {
+        List<Project> page = withoutLoaded(rows);
+        if (page.isEmpty()) return;
+        
+        pages.addLast(page);
+        if (pages.size() > maxPages) {
+            droppedHead.push(release(pages.removeFirst()));
+        }
+    }
+    
+    private void prependPage(List<Project> rows) {
+        List<Project> page = withoutLoaded(rows);
+        if (page.isEmpty()) return;
+        
+        pages.addFirst(page);
+        if (pages.size() > maxPages) {
+            droppedTail.push(release(pages.removeLast()));
+        }
+    }
+    
+    private List<Project> withoutLoaded(List<Project> rows) {
+        List<Project> page = new ArrayList<>(rows.size());
+        for (Project project : rows) {
+            if (loadedIds.add(project.getId())) {
+                page.add(project);
+            }
+        }
+        return page;
+    }
+    
+    /**
+     * Retrait d'une page de la fenêtre : seuls ses identifiants sont conservés
+     */
+    private int[] release(List<Project> page) {
+        int[] ids = new int[page.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = page.get(i).getId();
+            loadedIds.remove(ids[i]);
+        }
+        return ids;
+    }
+    
+    private void publish() {
+        List<Project> window = new ArrayList<>(loadedIds.size());
+        for (List<Project> page : pages) {
+            window.addAll(page);
+        }
+        listener.onWindowChanged(window);
+    }
+}
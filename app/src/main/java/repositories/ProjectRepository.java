@@ -1,14 +1,25 @@
 package com.crowdfundpro.android.data;
 
+import com.crowdfundpro.android.data.api.ConditionalGetInterceptor;
 import com.crowdfundpro.android.data.api.ProjectApiService;
 import com.crowdfundpro.android.data.db.ProjectDao;
 import com.crowdfundpro.android.data.db.CategoryDao;
+import com.crowdfundpro.android.data.db.WriteBehindBuffer;
 import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectStatus;
 import com.crowdfundpro.android.data.models.Category;
+import com.crowdfundpro.android.data.models.ProjectFts;
+import com.crowdfundpro.android.data.models.ProjectSearchResult;
+import com.crowdfundpro.android.utils.AppExecutors;
+import io.reactivex.rxjava3.core.Flowable;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository pour la gestion des projets
@@ -19,11 +30,20 @@ public class ProjectRepository {
     private ProjectApiService projectApiService;
     private ProjectDao projectDao;
     private CategoryDao categoryDao;
+    private WriteBehindBuffer writeBuffer;
+    private ConditionalGetInterceptor conditionalGet;
+    private final AppExecutors executors = AppExecutors.getInstance();
     
-    public ProjectRepository(ProjectApiService projectApiService, ProjectDao projectDao, CategoryDao categoryDao) {
+    // Requêtes identiques en vol regroupées en un seul appel
+    private final SingleFlight singleFlight = new SingleFlight();
+    
+    public ProjectRepository(ProjectApiService projectApiService, ProjectDao projectDao, CategoryDao categoryDao,
+                             WriteBehindBuffer writeBuffer, ConditionalGetInterceptor conditionalGet) {
         this.projectApiService = projectApiService;
         this.projectDao = projectDao;
         this.categoryDao = categoryDao;
+        this.writeBuffer = writeBuffer;
+        this.conditionalGet = conditionalGet;
     }
     
     /**
@@ -53,88 +73,124 @@ public class ProjectRepository {
     /**
      * Récupération des projets avec pagination
      */
-    public void getProjects(int page, int pageSize, Integer categoryId, String searchQuery, String status, ProjectListCallback callback) {
-        projectApiService.getProjects(page, pageSize, categoryId, searchQuery, status).enqueue(new Callback<ProjectApiService.ProjectListResponse>() {
-            @Override
-            public void onResponse(Call<ProjectApiService.ProjectListResponse> call, Response<ProjectApiService.ProjectListResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ProjectApiService.ProjectListResponse projectListResponse = response.body();
-                    
-                    // Sauvegarder les projets en local
-                    if (projectListResponse.getResults() != null && !projectListResponse.getResults().isEmpty()) {
-                        new Thread(() -> projectDao.insertProjects(projectListResponse.getResults())).start();
-                    }
-                    
-                    callback.onSuccess(projectListResponse);
-                } else {
-                    callback.onError("Erreur lors de la récupération des projets: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<ProjectApiService.ProjectListResponse> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    List<Project> localProjects = projectDao.getAllProjects();
-                    if (!localProjects.isEmpty()) {
-                        ProjectApiService.ProjectListResponse localResponse = new ProjectApiService.ProjectListResponse();
-                        localResponse.setResults(localProjects);
-                        localResponse.setCount(localProjects.size());
-                        callback.onSuccess(localResponse);
+    public RequestHandle getProjects(int page, int pageSize, Integer categoryId, String searchQuery, ProjectStatus status, ProjectListCallback callback) {
+        return singleFlight.enqueue("projects:" + page + ":" + pageSize + ":" + categoryId + ":" + searchQuery + ":" + status,
+            () -> projectApiService.getProjects(page, pageSize, categoryId, searchQuery, status, null),
+            new SingleFlight.Handler<ProjectApiService.ProjectListResponse, ProjectApiService.ProjectListResponse>() {
+                @Override
+                public void onResponse(Response<ProjectApiService.ProjectListResponse> response, SingleFlight.Result<ProjectApiService.ProjectListResponse> result) {
+                    ProjectApiService.ProjectListResponse unchanged = conditionalGet.notModifiedBody(response);
+                    if (unchanged != null) {
+                        // Page inchangée (304) : renvoyée au tampon, qui ne réécrit que les lignes absentes du cache
+                        writeBuffer.enqueueProjects(unchanged.getResults());
+                        result.success(unchanged);
+                    } else if (response.isSuccessful() && response.body() != null) {
+                        ProjectApiService.ProjectListResponse projectListResponse = response.body();
+                        
+                        // Sauvegarder les projets en local
+                        writeBuffer.enqueueProjects(projectListResponse.getResults());
+                        conditionalGet.remember(response);
+                        
+                        result.success(projectListResponse);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération des projets: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<ProjectApiService.ProjectListResponse> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        // Une seule page lue par clé, jamais la table entière
+                        List<Project> localProjects = searchQuery != null && !searchQuery.trim().isEmpty()
+                            ? searchLocalProjects(searchQuery, pageSize)
+                            : projectDao.getProjectsPageAfter(status, categoryId, Long.MAX_VALUE, Integer.MAX_VALUE, pageSize);
+                        if (!localProjects.isEmpty()) {
+                            ProjectApiService.ProjectListResponse localResponse = new ProjectApiService.ProjectListResponse();
+                            localResponse.setResults(localProjects);
+                            localResponse.setCount(localProjects.size());
+                            result.success(localResponse);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
+    }
+    
+    /**
+     * Première page d'une catégorie et d'un statut lue dans l'index en mémoire (quelques microsecondes)
+     * Retourne null tant que l'index n'est pas construit
+     */
+    public List<Project> getIndexedProjects(Integer categoryId, ProjectStatus status, int limit) {
+        return writeBuffer.getProjectIndex().query(categoryId, status, limit);
+    }
+    
+    /**
+     * Création d'un flux paginé (défilement infini) pour les filtres donnés
+     * maxPages borne le nombre de pages gardées en mémoire, quelle que soit la profondeur de défilement
+     */
+    public ProjectPager newPager(Integer categoryId, String searchQuery, ProjectStatus status, int pageSize, int maxPages) {
+        return new ProjectPager(projectApiService, projectDao, writeBuffer, conditionalGet, this,
+            categoryId, searchQuery, status, pageSize, maxPages);
     }
     
     /**
      * Récupération des détails d'un projet
      */
-    public void getProject(int projectId, ProjectCallback callback) {
-        projectApiService.getProject(projectId).enqueue(new Callback<Project>() {
-            @Override
-            public void onResponse(Call<Project> call, Response<Project> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Project project = response.body();
-                    
-                    // Sauvegarder le projet en local
-                    new Thread(() -> projectDao.insertProject(project)).start();
-                    
-                    callback.onSuccess(project);
-                } else {
-                    callback.onError("Erreur lors de la récupération du projet: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<Project> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    Project localProject = projectDao.getProjectById(projectId);
-                    if (localProject != null) {
-                        callback.onSuccess(localProject);
+    public RequestHandle getProject(int projectId, ProjectCallback callback) {
+        return singleFlight.enqueue("project:" + projectId,
+            () -> projectApiService.getProject(projectId),
+            new SingleFlight.Handler<Project, Project>() {
+                @Override
+                public void onResponse(Response<Project> response, SingleFlight.Result<Project> result) {
+                    Project unchanged = conditionalGet.notModifiedBody(response);
+                    if (unchanged != null) {
+                        // Projet inchangé (304) : renvoyé au tampon, réécrit seulement s'il a quitté le cache
+                        writeBuffer.enqueueProject(unchanged);
+                        result.success(unchanged);
+                    } else if (response.isSuccessful() && response.body() != null) {
+                        Project project = response.body();
+                        
+                        // Sauvegarder le projet en local
+                        writeBuffer.enqueueProject(project);
+                        conditionalGet.remember(response);
+                        
+                        result.success(project);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération du projet: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<Project> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        Project localProject = projectDao.getProjectById(projectId);
+                        if (localProject != null) {
+                            result.success(localProject);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
     }
     
     /**
      * Création d'un nouveau projet
      */
-    public void createProject(String token, Project project, ProjectCallback callback) {
-        projectApiService.createProject("Bearer " + token, project).enqueue(new Callback<Project>() {
+    public void createProject(Project project, ProjectCallback callback) {
+        projectApiService.createProject(project).enqueue(new Callback<Project>() {
             @Override
             public void onResponse(Call<Project> call, Response<Project> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     Project createdProject = response.body();
                     
                     // Sauvegarder le projet en local
-                    new Thread(() -> projectDao.insertProject(createdProject)).start();
+                    writeBuffer.enqueueProject(createdProject);
                     
                     callback.onSuccess(createdProject);
                 } else {
@@ -152,35 +208,44 @@ public class ProjectRepository {
     /**
      * Récupération des catégories
      */
-    public void getCategories(CategoryListCallback callback) {
-        projectApiService.getCategories().enqueue(new Callback<List<Category>>() {
-            @Override
-            public void onResponse(Call<List<Category>> call, Response<List<Category>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Category> categories = response.body();
-                    
-                    // Sauvegarder les catégories en local
-                    new Thread(() -> categoryDao.insertCategories(categories)).start();
-                    
-                    callback.onSuccess(categories);
-                } else {
-                    callback.onError("Erreur lors de la récupération des catégories: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<List<Category>> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    List<Category> localCategories = categoryDao.getAllCategories();
-                    if (!localCategories.isEmpty()) {
-                        callback.onSuccess(localCategories);
+    public RequestHandle getCategories(CategoryListCallback callback) {
+        return singleFlight.enqueue("categories",
+            () -> projectApiService.getCategories(),
+            new SingleFlight.Handler<List<Category>, List<Category>>() {
+                @Override
+                public void onResponse(Response<List<Category>> response, SingleFlight.Result<List<Category>> result) {
+                    List<Category> unchanged = conditionalGet.notModifiedBody(response);
+                    if (unchanged != null) {
+                        // Catégories inchangées (304) : comparées à la table locale, sans écriture si elle est à jour
+                        writeBuffer.replaceCategories(unchanged);
+                        result.success(unchanged);
+                    } else if (response.isSuccessful() && response.body() != null) {
+                        List<Category> categories = response.body();
+                        
+                        // Mise à jour de la table locale (pré-remplie à l'installation) : seules les différences sont écrites
+                        writeBuffer.replaceCategories(categories);
+                        conditionalGet.remember(response);
+                        
+                        result.success(categories);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération des catégories: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<List<Category>> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        List<Category> localCategories = categoryDao.getAllCategories();
+                        if (!localCategories.isEmpty()) {
+                            result.success(localCategories);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
     }
     
     /**
@@ -198,10 +263,59 @@ public class ProjectRepository {
     }
     
     /**
-     * Recherche de projets localement
+     * Récupération de plusieurs projets depuis la base de données locale
      */
-    public List<Project> searchLocalProjects(String searchQuery) {
-        return projectDao.searchProjectsByTitle(searchQuery);
+    public List<Project> getLocalProjects(List<Integer> projectIds) {
+        return projectDao.getProjectsByIds(projectIds);
+    }
+    
+    /**
+     * Recherche de projets localement (plein texte sur le titre et la description, par préfixe)
+     * Au plus limit résultats, choisis en SQL (titre d'abord, puis les plus récents) puis classés par pertinence ;
+     * une saisie sans mot exploitable ne donne aucun résultat
+     */
+    public List<Project> searchLocalProjects(String searchQuery, int limit) {
+        String matchQuery = ProjectFts.toMatchQuery(searchQuery);
+        if (matchQuery == null) {
+            return new ArrayList<>();
+        }
+        
+        List<ProjectSearchResult> results = projectDao.searchProjects(matchQuery,
+            ProjectFts.toTitleMatchQuery(searchQuery), limit);
+        final Map<ProjectSearchResult, Double> scores = new HashMap<>();
+        for (ProjectSearchResult result : results) {
+            scores.put(result, result.getScore());
+        }
+        Collections.sort(results, (a, b) -> {
+            int byScore = Double.compare(scores.get(b), scores.get(a));
+            return byScore != 0 ? byScore : Long.compare(b.getProject().getCreatedAt(), a.getProject().getCreatedAt());
+        });
+        
+        List<Project> projects = new ArrayList<>(results.size());
+        for (ProjectSearchResult result : results) {
+            projects.add(result.getProject());
+        }
+        return projects;
+    }
+    
+    /**
+     * Observation d'un projet en base locale (mis à jour à chaque écriture)
+     */
+    public Flowable<Project> observeProject(int projectId) {
+        return projectDao.observeProjectById(projectId);
+    }
+    
+    /**
+     * Observation des projets d'un statut en base locale
+     */
+    public Flowable<List<Project>> observeProjectsByStatus(ProjectStatus status) {
+        return projectDao.observeProjectsByStatus(status);
+    }
+    
+    /**
+     * Observation des catégories en base locale
+     */
+    public Flowable<List<Category>> observeCategories() {
+        return categoryDao.observeAllCategories();
     }
 }
-
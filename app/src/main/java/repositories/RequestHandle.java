@@ -0,0 +1,63 @@
+package com.crowdfundpro.android.data;
+
+import java.util.concurrent.Executor;
+import retrofit2.Call;
+
+/**
+ * Poignée d'annulation d'une requête lancée par un repository
+ * Une fois annulée, la réponse n'est ni analysée, ni écrite en base, ni transmise au callback
+ */
+public class RequestHandle {
+    
+    private final Call<?> call;
+    private final Runnable onCancel;
+    private volatile boolean cancelled;
+    
+    public RequestHandle(Call<?> call) {
+        this(call, null);
+    }
+    
+    /**
+     * Poignée d'un appel partagé (SingleFlight) : l'annulation détache l'appelant au lieu d'annuler l'appel
+     */
+    RequestHandle(Call<?> call, Runnable onCancel) {
+        this.call = call;
+        this.onCancel = onCancel;
+    }
+    
+    /**
+     * Annulation de la requête (sans effet si elle est déjà terminée)
+     */
+    public void cancel() {
+        cancelled = true;
+        if (onCancel != null) {
+            onCancel.run();
+        } else if (call != null) {
+            call.cancel();
+        }
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * Transmission d'un résultat sur l'exécuteur donné, sauf si la requête a été annulée entre-temps
+     */
+    public void deliver(Executor executor, Runnable delivery) {
+        executor.execute(() -> {
+            if (!cancelled) {
+                delivery.run();
+            }
+        });
+    }
+    
+    /**
+     * Annulation sans risque d'une poignée éventuellement nulle
+     */
+    public static void cancel(RequestHandle handle) {
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+}
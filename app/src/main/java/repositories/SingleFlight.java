@@ -0,0 +1,169 @@
+package com.crowdfundpro.android.data;
+
+import com.crowdfundpro.android.utils.AppExecutors;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Regroupement des requêtes identiques en vol (single-flight)
+ * Une requête lancée alors qu'une requête de même clé (endpoint et arguments) est en cours est rattachée à
+ * celle-ci : un seul appel réseau, traité une seule fois, dont le résultat est transmis à tous les appelants
+ * Chaque appelant garde sa propre poignée ; l'appel n'est annulé que lorsque tous ses appelants ont annulé
+ */
+public class SingleFlight {
+    
+    // Nom de la métrique exposée dans PerformanceMetrics : requêtes rattachées à un appel déjà en cours
+    public static final String METRIC_ABSORBED = "single_flight.absorbed";
+    
+    private final Map<String, Flight<?, ?>> flights = new HashMap<>();
+    private final AppExecutors executors = AppExecutors.getInstance();
+    
+    /**
+     * Traitement de la réponse d'un appel partagé, exécuté une seule fois quel que soit le nombre d'appelants
+     * C'est ici que se font les écritures en base et la lecture locale de repli ; le résultat fourni est ensuite
+     * transmis à chaque appelant
+     */
+    public interface Handler<T, R> {
+        void onResponse(Response<T> response, Result<R> result);
+        void onFailure(Throwable t, Result<R> result);
+    }
+    
+    /**
+     * Résultat d'un appel partagé, à fournir une seule fois, depuis n'importe quel thread
+     */
+    public interface Result<R> {
+        void success(R value);
+        void error(String message);
+    }
+    
+    /**
+     * Lancement de la requête de clé key, ou rattachement à celle qui est déjà en cours
+     * newCall et handler ne servent que si aucun appel n'est en cours ; onSuccess et onError reçoivent le
+     * résultat sur le thread principal, sauf si l'appelant a annulé entre-temps
+     */
+    public <T, R> RequestHandle enqueue(String key, Supplier<Call<T>> newCall, Handler<T, R> handler,
+                                        Consumer<R> onSuccess, Consumer<String> onError) {
+        Flight<T, R> flight;
+        boolean started;
+        Waiter<R> waiter = new Waiter<>(onSuccess, onError);
+        synchronized (flights) {
+            @SuppressWarnings("unchecked")
+            Flight<T, R> current = (Flight<T, R>) flights.get(key);
+            started = current == null;
+            flight = started ? new Flight<>(key, newCall.get()) : current;
+            if (started) {
+                flights.put(key, flight);
+            }
+            waiter.handle = new RequestHandle(flight.call, () -> detach(flight, waiter));
+            flight.waiters.add(waiter);
+        }
+        
+        if (!started) {
+            PerformanceMetrics.increment(METRIC_ABSORBED);
+            return waiter.handle;
+        }
+        
+        flight.call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (complete(flight)) {
+                    handler.onResponse(response, flight);
+                }
+            }
+            
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (complete(flight)) {
+                    handler.onFailure(t, flight);
+                }
+            }
+        });
+        return waiter.handle;
+    }
+    
+    /**
+     * Fin de l'appel : les requêtes suivantes de même clé repartent sur un nouvel appel
+     * Retourne false si tous les appelants ont annulé, la réponse n'est alors pas traitée
+     */
+    private boolean complete(Flight<?, ?> flight) {
+        synchronized (flights) {
+            if (flights.get(flight.key) == flight) {
+                flights.remove(flight.key);
+            }
+            return !flight.waiters.isEmpty();
+        }
+    }
+    
+    /**
+     * Annulation par un appelant : l'appel réseau n'est annulé qu'avec le dernier appelant
+     */
+    private void detach(Flight<?, ?> flight, Waiter<?> waiter) {
+        boolean last;
+        synchronized (flights) {
+            flight.waiters.remove(waiter);
+            last = flight.waiters.isEmpty();
+            if (last && flights.get(flight.key) == flight) {
+                flights.remove(flight.key);
+            }
+        }
+        if (last) {
+            flight.call.cancel();
+        }
+    }
+    
+    /**
+     * Appelants encore attachés au moment où le résultat est connu
+     */
+    private <R> List<Waiter<R>> waiters(Flight<?, R> flight) {
+        synchronized (flights) {
+            return new ArrayList<>(flight.waiters);
+        }
+    }
+    
+    /**
+     * Appel en cours et appelants qui attendent son résultat
+     */
+    private final class Flight<T, R> implements Result<R> {
+        final String key;
+        final Call<T> call;
+        final List<Waiter<R>> waiters = new ArrayList<>();
+        
+        Flight(String key, Call<T> call) {
+            this.key = key;
+            this.call = call;
+        }
+        
+        @Override
+        public void success(R value) {
+            for (Waiter<R> waiter : waiters(this)) {
+                waiter.handle.deliver(executors.mainThread(), () -> waiter.onSuccess.accept(value));
+            }
+        }
+        
+        @Override
+        public void error(String message) {
+            for (Waiter<R> waiter : waiters(this)) {
+                waiter.handle.deliver(executors.mainThread(), () -> waiter.onError.accept(message));
+            }
+        }
+    }
+    
+    private static final class Waiter<R> {
+        final Consumer<R> onSuccess;
+        final Consumer<String> onError;
+        RequestHandle handle;
+        
+        Waiter(Consumer<R> onSuccess, Consumer<String> onError) {
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.crowdfundpro.android.data;
 
 import com.crowdfundpro.android.data.api.SocialApiService;
 import com.crowdfundpro.android.data.db.CommentDao;
+import com.crowdfundpro.android.data.db.WriteBehindBuffer;
 import com.crowdfundpro.android.data.models.Comment;
 import com.crowdfundpro.android.data.models.User;
+import com.crowdfundpro.android.utils.AppExecutors;
+import io.reactivex.rxjava3.core.Flowable;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -16,10 +20,17 @@ public class SocialRepository {
     
     private SocialApiService socialApiService;
     private CommentDao commentDao;
+    private WriteBehindBuffer writeBuffer;
+    private final AppExecutors executors = AppExecutors.getInstance();
     
-    public SocialRepository(SocialApiService socialApiService, CommentDao commentDao) {
+    // Requêtes identiques en vol regroupées en un seul appel
+    private final SingleFlight singleFlight = new SingleFlight();
+    
+    public SocialRepository(SocialApiService socialApiService, CommentDao commentDao,
+                            WriteBehindBuffer writeBuffer) {
         this.socialApiService = socialApiService;
         this.commentDao = commentDao;
+        this.writeBuffer = writeBuffer;
     }
     
     /**
@@ -73,51 +84,54 @@ public class SocialRepository {
     /**
      * Récupération des commentaires d'un projet
      */
-    public void getProjectComments(int projectId, CommentListCallback callback) {
-        socialApiService.getProjectComments(projectId).enqueue(new Callback<List<Comment>>() {
-            @Override
-            public void onResponse(Call<List<Comment>> call, Response<List<Comment>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Comment> comments = response.body();
-                    
-                    // Sauvegarder les commentaires en local
-                    new Thread(() -> commentDao.insertComments(comments)).start();
-                    
-                    callback.onSuccess(comments);
-                } else {
-                    callback.onError("Erreur lors de la récupération des commentaires: " + response.message());
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<List<Comment>> call, Throwable t) {
-                // En cas d'échec réseau, essayer de récupérer depuis la base locale
-                new Thread(() -> {
-                    List<Comment> localComments = commentDao.getCommentsByProject(projectId);
-                    if (!localComments.isEmpty()) {
-                        callback.onSuccess(localComments);
+    public RequestHandle getProjectComments(int projectId, CommentListCallback callback) {
+        return singleFlight.enqueue("project_comments:" + projectId,
+            () -> socialApiService.getProjectComments(projectId),
+            new SingleFlight.Handler<List<Comment>, List<Comment>>() {
+                @Override
+                public void onResponse(Response<List<Comment>> response, SingleFlight.Result<List<Comment>> result) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        List<Comment> comments = response.body();
+                        
+                        // Sauvegarder les commentaires en local (avec les auteurs absents du cache)
+                        writeBuffer.enqueueComments(comments);
+                        
+                        result.success(comments);
                     } else {
-                        callback.onError("Erreur réseau: " + t.getMessage());
+                        result.error("Erreur lors de la récupération des commentaires: " + response.message());
                     }
-                }).start();
-            }
-        });
+                }
+                
+                @Override
+                public void onFailure(Throwable t, SingleFlight.Result<List<Comment>> result) {
+                    // En cas d'échec réseau, essayer de récupérer depuis la base locale
+                    executors.io().execute(() -> {
+                        List<Comment> localComments = commentDao.getCommentsByProject(projectId);
+                        if (!localComments.isEmpty()) {
+                            result.success(localComments);
+                        } else {
+                            result.error("Erreur réseau: " + t.getMessage());
+                        }
+                    });
+                }
+            },
+            callback::onSuccess, callback::onError);
     }
     
     /**
      * Publication d'un commentaire
      */
-    public void postComment(String token, int projectId, String content, CommentCallback callback) {
+    public void postComment(int projectId, String content, CommentCallback callback) {
         SocialApiService.CommentRequest request = new SocialApiService.CommentRequest(projectId, content);
         
-        socialApiService.postComment("Bearer " + token, request).enqueue(new Callback<Comment>() {
+        socialApiService.postComment(request).enqueue(new Callback<Comment>() {
             @Override
             public void onResponse(Call<Comment> call, Response<Comment> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     Comment comment = response.body();
                     
                     // Sauvegarder le commentaire en local
-                    new Thread(() -> commentDao.insertComment(comment)).start();
+                    writeBuffer.enqueueComments(Collections.singletonList(comment));
                     
                     callback.onSuccess(comment);
                 } else {
@@ -156,8 +170,8 @@ public class SocialRepository {
     /**
      * Suivi d'un projet
      */
-    public void followProject(String token, int projectId, FollowCallback callback) {
-        socialApiService.followProject("Bearer " + token, projectId).enqueue(new Callback<SocialApiService.FollowResponse>() {
+    public void followProject(int projectId, FollowCallback callback) {
+        socialApiService.followProject(projectId).enqueue(new Callback<SocialApiService.FollowResponse>() {
             @Override
             public void onResponse(Call<SocialApiService.FollowResponse> call, Response<SocialApiService.FollowResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -177,8 +191,8 @@ public class SocialRepository {
     /**
      * Arrêt du suivi d'un projet
      */
-    public void unfollowProject(String token, int projectId, FollowCallback callback) {
-        socialApiService.unfollowProject("Bearer " + token, projectId).enqueue(new Callback<SocialApiService.FollowResponse>() {
+    public void unfollowProject(int projectId, FollowCallback callback) {
+        socialApiService.unfollowProject(projectId).enqueue(new Callback<SocialApiService.FollowResponse>() {
             @Override
             public void onResponse(Call<SocialApiService.FollowResponse> call, Response<SocialApiService.FollowResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -198,10 +212,10 @@ public class SocialRepository {
     /**
      * Signalement d'un commentaire
      */
-    public void reportComment(String token, int commentId, String reason, ReportCallback callback) {
+    public void reportComment(int commentId, String reason, ReportCallback callback) {
         SocialApiService.ReportRequest request = new SocialApiService.ReportRequest(reason);
         
-        socialApiService.reportComment("Bearer " + token, commentId, request).enqueue(new Callback<Void>() {
+        socialApiService.reportComment(commentId, request).enqueue(new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> call, Response<Void> response) {
                 if (response.isSuccessful()) {
@@ -221,13 +235,13 @@ public class SocialRepository {
     /**
      * Suppression d'un commentaire
      */
-    public void deleteComment(String token, int commentId, DeleteCallback callback) {
-        socialApiService.deleteComment("Bearer " + token, commentId).enqueue(new Callback<Void>() {
+    public void deleteComment(int commentId, DeleteCallback callback) {
+        socialApiService.deleteComment(commentId).enqueue(new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> call, Response<Void> response) {
                 if (response.isSuccessful()) {
                     // Marquer le commentaire comme supprimé en local
-                    new Thread(() -> commentDao.markCommentAsDeleted(commentId)).start();
+                    executors.diskWrite().execute(() -> commentDao.markCommentAsDeleted(commentId));
                     
                     callback.onSuccess();
                 } else {
@@ -248,5 +262,11 @@ public class SocialRepository {
     public List<Comment> getLocalComments(int projectId) {
         return commentDao.getCommentsByProject(projectId);
     }
+    
+    /**
+     * Observation des commentaires d'un projet en base locale (mis à jour à chaque écriture)
+     */
+    public Flowable<List<Comment>> observeComments(int projectId) {
+        return commentDao.observeCommentsByProject(projectId);
+    }
 }
-
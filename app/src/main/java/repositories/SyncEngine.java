@@ -0,0 +1,307 @@
+package com.crowdfundpro.android.data;
+
+import android.os.SystemClock;
+import com.crowdfundpro.android.data.api.ConditionalGetInterceptor;
+import com.crowdfundpro.android.data.api.InvestmentApiService;
+import com.crowdfundpro.android.data.api.ProjectApiService;
+import com.crowdfundpro.android.data.db.InvestmentDao;
+import com.crowdfundpro.android.data.db.ProjectDao;
+import com.crowdfundpro.android.data.db.SyncStateDao;
+import com.crowdfundpro.android.data.db.WriteBehindBuffer;
+import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.SyncState;
+import com.crowdfundpro.android.utils.AppExecutors;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synchronisation différentielle des projets et des investissements
+ * Seules les lignes modifiées depuis le point de reprise (updated_since) sont téléchargées, puis fusionnées en base
+ * avec les suppressions (tombstones) ; le nouveau point de reprise est enregistré dans la transaction du dernier lot,
+ * et seulement si aucun lot n'a échoué : sinon l'erreur est signalée et le point de reprise précédent reste en place
+ * La synchronisation est complète la première fois, ou lorsque le cache de l'entité a été vidé entre-temps
+ * Tous les callbacks s'exécutent sur le thread principal
+ */
+public class SyncEngine {
+    
+    /**
+     * Fin d'une synchronisation : nombre de lignes écrites ou supprimées en base
+     */
+    public interface SyncCallback {
+        void onSynced(int changedRows);
+        void onError(String error);
+    }
+    
+    static final String ENTITY_PROJECTS = "projects";
+    static final String ENTITY_INVESTMENTS = "investments";
+    
+    // Taille des pages demandées pendant la synchronisation des projets
+    static final int SYNC_PAGE_SIZE = 100;
+    
+    private final ProjectApiService projectApiService;
+    private final InvestmentApiService investmentApiService;
+    private final ProjectDao projectDao;
+    private final InvestmentDao investmentDao;
+    private final SyncStateDao syncStateDao;
+    private final WriteBehindBuffer writeBuffer;
+    private final ConditionalGetInterceptor conditionalGet;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    
+    public SyncEngine(ProjectApiService projectApiService, InvestmentApiService investmentApiService,
+                      ProjectDao projectDao, InvestmentDao investmentDao, SyncStateDao syncStateDao,
+                      WriteBehindBuffer writeBuffer, ConditionalGetInterceptor conditionalGet) {
+        this.projectApiService = projectApiService;
+        this.investmentApiService = investmentApiService;
+        this.projectDao = projectDao;
+        this.investmentDao = investmentDao;
+        this.syncStateDao = syncStateDao;
+        this.writeBuffer = writeBuffer;
+        this.conditionalGet = conditionalGet;
+    }
+    
+    /**
+     * Synchronisation des projets (toutes les pages de modifications, en suivant le lien next)
+     */
+    public RequestHandle syncProjects(SyncCallback callback) {
+        RequestHandle handle = new RequestHandle(null);
+        long startedAt = SystemClock.elapsedRealtime();
+        executors.io().execute(() -> {
+            SyncRun run = new SyncRun(ENTITY_PROJECTS, loadState(ENTITY_PROJECTS, projectDao.hasProjects()), startedAt);
+            handle.deliver(executors.mainThread(), () -> fetchProjects(handle, run,
+                projectApiService.getProjects(1, SYNC_PAGE_SIZE, null, null, null, run.since()), callback));
+        });
+        return handle;
+    }
+    
+    private void fetchProjects(RequestHandle handle, SyncRun run, Call<ProjectApiService.ProjectListResponse> request,
+                               SyncCallback callback) {
+        request.enqueue(new Callback<ProjectApiService.ProjectListResponse>() {
+            @Override
+            public void onResponse(Call<ProjectApiService.ProjectListResponse> call,
+                                   Response<ProjectApiService.ProjectListResponse> response) {
+                if (handle.isCancelled() || run.isFailed()) return;
+                
+                // getProjects et getProjectsPage sont des requêtes conditionnelles : une page déjà traitée par
+                // ProjectRepository peut revenir en 304 ; son corps mémorisé est alors fusionné comme une page reçue
+                ProjectApiService.ProjectListResponse unchanged = conditionalGet.notModifiedBody(response);
+                if (unchanged != null || (response.isSuccessful() && response.body() != null)) {
+                    ProjectApiService.ProjectListResponse page = unchanged != null ? unchanged : response.body();
+                    List<Project> changes = page.getResults() != null ? page.getResults() : new ArrayList<>();
+                    for (Project project : changes) {
+                        run.onRow(project.getUpdatedAt());
+                    }
+                    run.onPage(responseBytes(response));
+                    
+                    if (page.getNext() != null) {
+                        // Page fusionnée sans point de reprise, pendant le téléchargement de la suivante
+                        writeBuffer.mergeChanges(changes, Collections.emptyList(), () -> null,
+                            mergeCallback(handle, run, callback, false));
+                        fetchProjects(handle, run, projectApiService.getProjectsPage(page.getNext()), callback);
+                    } else {
+                        writeBuffer.mergeChanges(changes, Collections.emptyList(), run::completedState,
+                            mergeCallback(handle, run, callback, true));
+                    }
+                } else {
+                    callback.onError("Erreur lors de la synchronisation des projets: " + response.message());
+                }
+            }
+            
+            @Override
+            public void onFailure(Call<ProjectApiService.ProjectListResponse> call, Throwable t) {
+                if (handle.isCancelled()) return;
+                callback.onError("Erreur réseau: " + t.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Synchronisation des investissements de l'utilisateur (point de reprise propre à chaque utilisateur)
+     */
+    public RequestHandle syncInvestments(int userId, SyncCallback callback) {
+        RequestHandle handle = new RequestHandle(null);
+        long startedAt = SystemClock.elapsedRealtime();
+        String entity = ENTITY_INVESTMENTS + ":" + userId;
+        executors.io().execute(() -> {
+            SyncRun run = new SyncRun(ENTITY_INVESTMENTS, loadState(entity, investmentDao.hasInvestmentsForUser(userId)),
+                startedAt);
+            handle.deliver(executors.mainThread(), () -> fetchInvestments(handle, run, callback));
+        });
+        return handle;
+    }
+    
+    private void fetchInvestments(RequestHandle handle, SyncRun run, SyncCallback callback) {
+        investmentApiService.getUserInvestments(run.since()).enqueue(new Callback<List<Investment>>() {
+            @Override
+            public void onResponse(Call<List<Investment>> call, Response<List<Investment>> response) {
+                if (handle.isCancelled()) return;
+                
+                if (response.isSuccessful() && response.body() != null) {
+                    List<Investment> changes = response.body();
+                    for (Investment investment : changes) {
+                        run.onRow(investment.getUpdatedAt());
+                    }
+                    run.onPage(responseBytes(response));
+                    writeBuffer.mergeChanges(Collections.emptyList(), changes, run::completedState,
+                        mergeCallback(handle, run, callback, true));
+                } else {
+                    callback.onError("Erreur lors de la synchronisation des investissements: " + response.message());
+                }
+            }
+            
+            @Override
+            public void onFailure(Call<List<Investment>> call, Throwable t) {
+                if (handle.isCancelled()) return;
+                callback.onError("Erreur réseau: " + t.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Fin de la fusion d'une page, sur la file d'écriture : lignes comptées, synchronisation terminée après
+     * la dernière page ; au premier échec, l'erreur est transmise une seule fois et la suite est abandonnée
+     */
+    private WriteBehindBuffer.MergeCallback mergeCallback(RequestHandle handle, SyncRun run, SyncCallback callback,
+                                                          boolean lastPage) {
+        return new WriteBehindBuffer.MergeCallback() {
+            @Override
+            public void onMerged(int writtenRows) {
+                // Après l'échec d'une page précédente, le dernier lot est écrit sans point de reprise
+                if (run.isFailed()) return;
+                if (lastPage) {
+                    handle.deliver(executors.mainThread(), () -> run.complete(writtenRows, callback));
+                } else {
+                    run.written.addAndGet(writtenRows);
+                }
+            }
+            
+            @Override
+            public void onError(RuntimeException error) {
+                if (run.fail()) {
+                    handle.deliver(executors.mainThread(),
+                        () -> callback.onError("Erreur d'écriture de la synchronisation: " + error.getMessage()));
+                }
+            }
+        };
+    }
+    
+    /**
+     * Point de reprise enregistré, ignoré si le cache de l'entité est vide (déconnexion, éviction...)
+     */
+    private SyncState loadState(String entity, boolean hasCachedRows) {
+        SyncState state = syncStateDao.getSyncState(entity);
+        if (state == null) {
+            return new SyncState(entity);
+        }
+        if (!hasCachedRows) {
+            state.setHighWaterMark(0);
+        }
+        return state;
+    }
+    
+    /**
+     * Taille de la réponse sur le réseau (avant décompression), -1 si le serveur ne l'indique pas
+     */
+    private static long responseBytes(Response<?> response) {
+        okhttp3.Response networkResponse = response.raw().networkResponse();
+        String contentLength = networkResponse != null ? networkResponse.header("Content-Length") : null;
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return response.raw().body() != null ? response.raw().body().contentLength() : -1;
+    }
+    
+    /**
+     * État d'une synchronisation en cours (thread principal, sauf le compteur de lignes écrites et l'échec,
+     * mis à jour sur la file d'écriture)
+     */
+    private static class SyncRun {
+        private final String name;
+        private final SyncState previous;
+        private final long startedAt;
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private long maxUpdatedAt;
+        private long bytes;
+        private int rows;
+        
+        SyncRun(String name, SyncState previous, long startedAt) {
+            this.name = name;
+            this.previous = previous;
+            this.startedAt = startedAt;
+            this.maxUpdatedAt = previous.getHighWaterMark();
+        }
+        
+        boolean isFull() {
+            return previous.getHighWaterMark() <= 0;
+        }
+        
+        /**
+         * Paramètre updated_since : nul pour une synchronisation complète
+         * La borne est incluse côté serveur ; les lignes déjà connues ne sont pas réécrites (updated_at identique)
+         */
+        Long since() {
+            return isFull() ? null : previous.getHighWaterMark();
+        }
+        
+        void onRow(long updatedAt) {
+            rows++;
+            maxUpdatedAt = Math.max(maxUpdatedAt, updatedAt);
+        }
+        
+        void onPage(long pageBytes) {
+            bytes = bytes < 0 || pageBytes < 0 ? -1 : bytes + pageBytes;
+        }
+        
+        /**
+         * Échec d'une page ; retourne true au premier échec seulement
+         */
+        boolean fail() {
+            return failed.compareAndSet(false, true);
+        }
+        
+        boolean isFailed() {
+            return failed.get();
+        }
+        
+        /**
+         * Nouveau point de reprise, lu dans la transaction du dernier lot : aucun si une page a échoué
+         */
+        SyncState completedState() {
+            if (isFailed()) return null;
+            SyncState state = new SyncState(previous.getEntity());
+            state.setHighWaterMark(maxUpdatedAt);
+            state.setFullSyncBytes(isFull() ? bytes : previous.getFullSyncBytes());
+            state.setLastSyncAt(System.currentTimeMillis());
+            return state;
+        }
+        
+        void complete(int lastPageWritten, SyncCallback callback) {
+            int changedRows = written.addAndGet(lastPageWritten);
+            String prefix = "sync." + name;
+            PerformanceMetrics.recordTime(prefix, SystemClock.elapsedRealtime() - startedAt);
+            PerformanceMetrics.increment(prefix + (isFull() ? ".full" : ".delta"));
+            PerformanceMetrics.add(prefix + ".rows_received", rows);
+            PerformanceMetrics.add(prefix + ".rows_changed", changedRows);
+            if (bytes >= 0) {
+                PerformanceMetrics.add(prefix + ".bytes_received", bytes);
+                // Économie estimée par rapport au coût de la dernière synchronisation complète
+                if (!isFull() && previous.getFullSyncBytes() > 0) {
+                    PerformanceMetrics.add(prefix + ".bytes_saved", Math.max(0, previous.getFullSyncBytes() - bytes));
+                }
+            }
+            callback.onSynced(changedRows);
+        }
+    }
+}
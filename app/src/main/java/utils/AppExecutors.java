@@ -0,0 +1,238 @@
+package com.crowdfundpro.android.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécuteurs partagés par toute l'application
+ * - io() : pool borné pour les lectures locales et les traitements courts (débordement sur un thread dédié)
+ * - diskWrite() : file unique pour les écritures Room (un seul écrivain à la fois)
+ * - mainThread() : retour sur le thread UI pour les callbacks
+ */
+public final class AppExecutors {
+    
+    private static final String TAG = "AppExecutors";
+    
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int IO_POOL_SIZE = Math.max(2, Math.min(CPU_COUNT, 4));
+    private static final int IO_QUEUE_CAPACITY = 128;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    
+    // Noms des métriques exposées dans PerformanceMetrics
+    public static final String METRIC_IO = "executor.io";
+    public static final String METRIC_DISK_WRITE = "executor.disk_write";
+    
+    private static volatile AppExecutors INSTANCE;
+    
+    private final ThreadPoolExecutor ioExecutor;
+    private final ThreadPoolExecutor diskWriteExecutor;
+    private final MainThreadExecutor mainThreadExecutor;
+    
+    private final Executor instrumentedIo;
+    private final Executor instrumentedDiskWrite;
+    
+    private AppExecutors() {
+        ioExecutor = new ThreadPoolExecutor(
+            IO_POOL_SIZE,
+            IO_POOL_SIZE,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(IO_QUEUE_CAPACITY),
+            new NamedThreadFactory("cfp-io"),
+            new OverflowWhenSaturated(METRIC_IO, new NamedThreadFactory("cfp-io-overflow"))
+        );
+        ioExecutor.allowCoreThreadTimeOut(true);
+        
+        // Une seule connexion en écriture côté SQLite : inutile d'avoir plus d'un thread
+        diskWriteExecutor = new ThreadPoolExecutor(
+            1,
+            1,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("cfp-db-writer")
+        );
+        diskWriteExecutor.allowCoreThreadTimeOut(true);
+        
+        mainThreadExecutor = new MainThreadExecutor();
+        
+        instrumentedIo = new InstrumentedExecutor(ioExecutor, METRIC_IO);
+        instrumentedDiskWrite = new InstrumentedExecutor(diskWriteExecutor, METRIC_DISK_WRITE);
+    }
+    
+    /**
+     * Singleton partagé par tous les repositories
+     */
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+    
+    /**
+     * Pool borné pour les lectures et traitements en arrière-plan
+     */
+    public Executor io() {
+        return instrumentedIo;
+    }
+    
+    /**
+     * File sérialisée pour les écritures en base de données
+     */
+    public Executor diskWrite() {
+        return instrumentedDiskWrite;
+    }
+    
+    /**
+     * Exécution sur le thread principal
+     */
+    public Executor mainThread() {
+        return mainThreadExecutor;
+    }
+    
+    /**
+     * Exécution différée d'une tâche sur l'exécuteur cible
+     */
+    public void schedule(Runnable command, long delayMs, Executor target) {
+        mainThreadExecutor.executeDelayed(() -> target.execute(command), delayMs);
+    }
+    
+    /**
+     * Nombre de tâches en attente dans le pool I/O
+     */
+    public int getIoQueueDepth() {
+        return ioExecutor.getQueue().size();
+    }
+    
+    /**
+     * Nombre de threads I/O en cours d'exécution
+     */
+    public int getIoActiveCount() {
+        return ioExecutor.getActiveCount();
+    }
+    
+    /**
+     * Nombre d'écritures en attente
+     */
+    public int getDiskWriteQueueDepth() {
+        return diskWriteExecutor.getQueue().size();
+    }
+    
+    /**
+     * Fabrique de threads nommés, en priorité arrière-plan
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+        
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+    
+    /**
+     * Quand la file est pleine, la tâche passe sur un thread de débordement (file non bornée) :
+     * jamais sur le thread appelant, qui peut être le thread principal (Room y refuse les requêtes)
+     * La saturation est comptée pour dimensionner le pool
+     */
+    private static class OverflowWhenSaturated implements RejectedExecutionHandler {
+        private final String metricPrefix;
+        private final ThreadPoolExecutor overflow;
+        
+        OverflowWhenSaturated(String metricPrefix, ThreadFactory threadFactory) {
+            this.metricPrefix = metricPrefix;
+            this.overflow = new ThreadPoolExecutor(
+                1,
+                1,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+            );
+            overflow.allowCoreThreadTimeOut(true);
+        }
+        
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            PerformanceMetrics.increment(metricPrefix + ".saturated");
+            if (!executor.isShutdown()) {
+                overflow.execute(runnable);
+            }
+        }
+    }
+    
+    /**
+     * Enveloppe qui mesure l'attente en file, la durée d'exécution et la profondeur de file
+     */
+    private static class InstrumentedExecutor implements Executor {
+        private final ThreadPoolExecutor delegate;
+        private final String metricPrefix;
+        
+        InstrumentedExecutor(ThreadPoolExecutor delegate, String metricPrefix) {
+            this.delegate = delegate;
+            this.metricPrefix = metricPrefix;
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            final long enqueuedAt = SystemClock.elapsedRealtime();
+            PerformanceMetrics.increment(metricPrefix + ".submitted");
+            delegate.execute(() -> {
+                long startedAt = SystemClock.elapsedRealtime();
+                PerformanceMetrics.recordTime(metricPrefix + ".queue_wait", startedAt - enqueuedAt);
+                try {
+                    command.run();
+                    PerformanceMetrics.increment(metricPrefix + ".completed");
+                } catch (RuntimeException e) {
+                    PerformanceMetrics.increment(metricPrefix + ".failed");
+                    Log.e(TAG, "Tâche en échec sur " + metricPrefix, e);
+                } finally {
+                    PerformanceMetrics.recordTime(metricPrefix + ".run", SystemClock.elapsedRealtime() - startedAt);
+                }
+            });
+            PerformanceMetrics.recordMax(metricPrefix + ".queue_depth_max", delegate.getQueue().size());
+        }
+    }
+    
+    /**
+     * Exécuteur qui poste sur le Looper principal
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+        
+        @Override
+        public void execute(Runnable command) {
+            mainThreadHandler.post(command);
+        }
+        
+        void executeDelayed(Runnable command, long delayMs) {
+            mainThreadHandler.postDelayed(command, delayMs);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.crowdfundpro.android.utils;
+
+import android.util.Base64;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONObject;
+
+/**
+ * Session d'authentification en mémoire, immuable : token d'accès, en-tête Authorization prêt à l'emploi
+ * et claims du JWT (user_id, exp) décodés une seule fois
+ * Remplacée d'un bloc par TokenManager à chaque enregistrement ou rafraîchissement du token
+ */
+public final class AuthSession {
+    
+    /**
+     * Aucun utilisateur connecté
+     */
+    public static final AuthSession NONE = new AuthSession(null, null, -1, 0);
+    
+    private final String accessToken;
+    private final String authorizationHeader;
+    private final int userId;
+    private final long expiresAt;
+    
+    private AuthSession(String accessToken, String authorizationHeader, int userId, long expiresAt) {
+        this.accessToken = accessToken;
+        this.authorizationHeader = authorizationHeader;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+    
+    /**
+     * Session correspondant à un token d'accès (NONE si le token est nul)
+     * Un payload illisible donne user_id = -1 et exp = 0 (token considéré comme expiré)
+     */
+    public static AuthSession fromToken(String accessToken) {
+        if (accessToken == null) return NONE;
+        
+        int userId = -1;
+        long expiresAt = 0;
+        try {
+            // Payload JWT (partie centrale), en Base64 URL (padding facultatif au décodage)
+            String[] parts = accessToken.split("\\.");
+            if (parts.length == 3) {
+                byte[] payload = Base64.decode(parts[1], Base64.URL_SAFE);
+                JSONObject claims = new JSONObject(new String(payload, StandardCharsets.UTF_8));
+                userId = claims.optInt("user_id", -1);
+                expiresAt = claims.optLong("exp", 0);
+            }
+        } catch (Exception e) {
+            // Claims indisponibles : valeurs par défaut
+        }
+        return new AuthSession(accessToken, "Bearer " + accessToken, userId, expiresAt);
+    }
+    
+    public boolean isAuthenticated() {
+        return accessToken != null;
+    }
+    
+    /**
+     * Expiration du token (exp, en secondes) atteinte, ou absence de token
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() / 1000 >= expiresAt;
+    }
+    
+    public String getAccessToken() { return accessToken; }
+    
+    /**
+     * Valeur de l'en-tête Authorization ("Bearer " + token), null sans token
+     */
+    public String getAuthorizationHeader() { return authorizationHeader; }
+    
+    /**
+     * Claim user_id, -1 si absent
+     */
+    public int getUserId() { return userId; }
+    
+    /**
+     * Claim exp (secondes depuis l'epoch), 0 si absent
+     */
+    public long getExpiresAt() { return expiresAt; }
+}
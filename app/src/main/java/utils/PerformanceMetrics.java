@@ -0,0 +1,138 @@
+package com.crowdfundpro.android.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registre des compteurs et des temps de réponse de l'application
+ * Les valeurs sont cumulées depuis le démarrage du processus
+ */
+public final class PerformanceMetrics {
+    
+    private static final ConcurrentHashMap<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    
+    private PerformanceMetrics() {}
+    
+    /**
+     * Incrémentation d'un compteur
+     */
+    public static void increment(String name) {
+        add(name, 1);
+    }
+    
+    /**
+     * Ajout d'une valeur à un compteur
+     */
+    public static void add(String name, long delta) {
+        counter(name).addAndGet(delta);
+    }
+    
+    /**
+     * Conserve la valeur maximale observée (profondeur de file, taille de lot...)
+     */
+    public static void recordMax(String name, long value) {
+        AtomicLong counter = counter(name);
+        long max;
+        do {
+            max = counter.get();
+        } while (value > max && !counter.compareAndSet(max, value));
+    }
+    
+    /**
+     * Valeur courante d'un compteur
+     */
+    public static long get(String name) {
+        AtomicLong counter = COUNTERS.get(name);
+        return counter != null ? counter.get() : 0;
+    }
+    
+    /**
+     * Enregistrement d'une durée (en millisecondes)
+     */
+    public static void recordTime(String name, long durationMs) {
+        Timer timer = TIMERS.get(name);
+        if (timer == null) {
+            TIMERS.putIfAbsent(name, new Timer());
+            timer = TIMERS.get(name);
+        }
+        timer.record(durationMs);
+    }
+    
+    /**
+     * Statistiques d'un chronomètre, ou null s'il n'a jamais été utilisé
+     */
+    public static Timer getTimer(String name) {
+        return TIMERS.get(name);
+    }
+    
+    /**
+     * Instantané trié de tous les compteurs et chronomètres (pour les logs et l'écran de debug)
+     */
+    public static Map<String, String> snapshot() {
+        Map<String, String> values = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : COUNTERS.entrySet()) {
+            values.put(entry.getKey(), String.valueOf(entry.getValue().get()));
+        }
+        for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().toString());
+        }
+        return values;
+    }
+    
+    /**
+     * Remise à zéro (utile pour les tests)
+     */
+    public static void reset() {
+        COUNTERS.clear();
+        TIMERS.clear();
+    }
+    
+    private static AtomicLong counter(String name) {
+        AtomicLong counter = COUNTERS.get(name);
+        if (counter == null) {
+            COUNTERS.putIfAbsent(name, new AtomicLong());
+            counter = COUNTERS.get(name);
+        }
+        return counter;
+    }
+    
+    /**
+     * Chronomètre cumulatif : nombre d'échantillons, total, maximum et dernière valeur
+     */
+    public static final class Timer {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+        private volatile long lastMs;
+        
+        void record(long durationMs) {
+            count.incrementAndGet();
+            totalMs.addAndGet(durationMs);
+            lastMs = durationMs;
+            long max;
+            do {
+                max = maxMs.get();
+            } while (durationMs > max && !maxMs.compareAndSet(max, durationMs));
+        }
+        
+        public long getCount() { return count.get(); }
+        public long getTotalMs() { return totalMs.get(); }
+        public long getMaxMs() { return maxMs.get(); }
+        public long getLastMs() { return lastMs; }
+        
+        public double getAverageMs() {
+            long samples = count.get();
+            return samples > 0 ? (double) totalMs.get() / samples : 0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "n=%d avg=%.1fms max=%dms last=%dms",
+                getCount(), getAverageMs(), getMaxMs(), getLastMs());
+        }
+    }
+}
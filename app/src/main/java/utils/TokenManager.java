@@ -2,180 +2,316 @@ package com.crowdfundpro.android.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Base64;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 import androidx.security.crypto.EncryptedSharedPreferences;
 import androidx.security.crypto.MasterKeys;
-import org.json.JSONObject;
 import java.security.GeneralSecurityException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Gestionnaire de tokens JWT avec stockage sécurisé
+ * Le token d'accès est lu une seule fois dans les préférences chiffrées puis servi depuis la session
+ * en mémoire (AuthSession), partagée par toutes les instances et remplacée à chaque enregistrement
+ * Le stockage chiffré (clé Keystore, Tink) est ouvert une seule fois par processus, en arrière-plan (preload) ;
+ * le thread principal ne l'attend pas : les écritures sont appliquées dès l'ouverture et la session est
+ * transmise par callback (getSession(SessionCallback)) ; les lectures bloquantes ont une attente bornée
  */
 public class TokenManager {
     
+    private static final String TAG = "TokenManager";
+    
     private static final String PREFS_NAME = "auth_prefs";
     private static final String KEY_ACCESS_TOKEN = "access_token";
     private static final String KEY_REFRESH_TOKEN = "refresh_token";
+    // Ancienne copie de exp, lue désormais dans la session ; encore supprimée par clearTokens
     private static final String KEY_TOKEN_EXPIRY = "token_expiry";
     
-    private SharedPreferences sharedPreferences;
-    private Context context;
+    // Attente maximale du stockage par une lecture bloquante : courte sur le thread principal (pas d'ANR),
+    // plus longue pour l'intercepteur et l'authentificateur, qui tournent sur les threads d'OkHttp
+    private static final long MAIN_THREAD_WAIT_MS = 250;
+    private static final long BACKGROUND_WAIT_MS = 10_000;
+    
+    // Noms des métriques exposées dans PerformanceMetrics
+    public static final String METRIC_OPEN = "token_store.open";
+    public static final String METRIC_WAIT = "token_store.wait";
+    public static final String METRIC_TIMEOUT = "token_store.timeout";
+    public static final String METRIC_FALLBACK = "token_store.fallback";
+    
+    // Session courante du processus, chargée à l'ouverture du stockage
+    private static final AtomicReference<AuthSession> SESSION = new AtomicReference<>();
+    
+    // Ouverture du stockage, partagée par toutes les instances
+    private static final Object STORE_LOCK = new Object();
+    private static FutureTask<SharedPreferences> store;
+    private static boolean storeOpened;
+    
+    // Actions en attente de l'ouverture (écritures, callbacks de session), exécutées dans l'ordre d'arrivée
+    private static final List<Consumer<SharedPreferences>> PENDING = new ArrayList<>();
+    
+    private final FutureTask<SharedPreferences> preferences;
+    private final AppExecutors executors = AppExecutors.getInstance();
     
+    /**
+     * Réception de la session sur le thread principal
+     */
+    public interface SessionCallback {
+        void onSession(AuthSession session);
+    }
+    
+    /**
+     * Construction immédiate : l'ouverture du stockage est lancée en arrière-plan si ce n'est pas déjà fait
+     */
     public TokenManager(Context context) {
-        this.context = context;
-        initializeEncryptedPreferences();
+        this.preferences = openStore(context.getApplicationContext());
+    }
+    
+    /**
+     * Ouverture anticipée du stockage chiffré, à appeler au démarrage du processus (Application.onCreate)
+     * La session est chargée dans la foulée : les premiers écrans la trouvent en mémoire
+     */
+    public static void preload(Context context) {
+        openStore(context.getApplicationContext());
     }
     
-    private void initializeEncryptedPreferences() {
+    private static FutureTask<SharedPreferences> openStore(Context appContext) {
+        synchronized (STORE_LOCK) {
+            if (store == null) {
+                long start = SystemClock.elapsedRealtime();
+                store = new FutureTask<SharedPreferences>(() -> {
+                    SharedPreferences opened = createPreferences(appContext);
+                    PerformanceMetrics.recordTime(METRIC_OPEN, SystemClock.elapsedRealtime() - start);
+                    SESSION.compareAndSet(null, AuthSession.fromToken(opened.getString(KEY_ACCESS_TOKEN, null)));
+                    return opened;
+                }) {
+                    @Override
+                    protected void done() {
+                        runPending(this);
+                    }
+                };
+                // Thread dédié plutôt que le pool io() : une tâche io() qui attend le stockage ne peut pas
+                // bloquer son ouverture
+                new Thread(store, "cfp-token-store").start();
+            }
+            return store;
+        }
+    }
+    
+    private static SharedPreferences createPreferences(Context appContext) {
         try {
             String masterKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
             
-            sharedPreferences = EncryptedSharedPreferences.create(
+            return EncryptedSharedPreferences.create(
                 PREFS_NAME,
                 masterKeyAlias,
-                context,
+                appContext,
                 EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
                 EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
             );
         } catch (GeneralSecurityException | IOException e) {
-            // Fallback vers SharedPreferences normal en cas d'erreur
-            sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            // Fallback vers SharedPreferences normal, uniquement si le Keystore ou Tink échoue réellement
+            Log.e(TAG, "Stockage chiffré indisponible", e);
+            PerformanceMetrics.increment(METRIC_FALLBACK);
+            return appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        }
+    }
+    
+    /**
+     * Fin de l'ouverture : exécution des actions en attente, sous le verrou pour que celles qui arrivent
+     * entre-temps passent après elles
+     */
+    private static void runPending(FutureTask<SharedPreferences> task) {
+        synchronized (STORE_LOCK) {
+            storeOpened = true;
+            SharedPreferences opened = openedStore(task);
+            for (Consumer<SharedPreferences> action : PENDING) {
+                action.accept(opened);
+            }
+            PENDING.clear();
+        }
+    }
+    
+    /**
+     * Action sur le stockage dès qu'il est ouvert (immédiatement s'il l'est déjà), sans jamais attendre
+     * Les actions doivent être courtes : elles s'exécutent sous le verrou du stockage
+     */
+    private void whenOpen(Consumer<SharedPreferences> action) {
+        synchronized (STORE_LOCK) {
+            if (storeOpened) {
+                action.accept(openedStore(preferences));
+            } else {
+                PENDING.add(action);
+            }
+        }
+    }
+    
+    private static SharedPreferences openedStore(FutureTask<SharedPreferences> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // createPreferences ne lève pas d'exception (repli sur les préférences simples)
+            throw new IllegalStateException("Ouverture du stockage des tokens impossible", e);
+        }
+    }
+    
+    /**
+     * Stockage ouvert, en attendant la fin de l'ouverture au plus MAIN_THREAD_WAIT_MS sur le thread principal
+     * et BACKGROUND_WAIT_MS ailleurs (durée d'attente mesurée)
+     * Retourne null si le délai est dépassé : l'appelant traite ce cas explicitement
+     */
+    private SharedPreferences preferences() {
+        if (preferences.isDone()) {
+            return openedStore(preferences);
+        }
+        long start = SystemClock.elapsedRealtime();
+        long timeoutMs = Looper.myLooper() == Looper.getMainLooper() ? MAIN_THREAD_WAIT_MS : BACKGROUND_WAIT_MS;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                long remaining = timeoutMs - (SystemClock.elapsedRealtime() - start);
+                try {
+                    return preferences.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Attente reprise dans la limite du délai
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    Log.w(TAG, "Stockage des tokens toujours en cours d'ouverture après " + timeoutMs + " ms");
+                    PerformanceMetrics.increment(METRIC_TIMEOUT);
+                    return null;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Ouverture du stockage des tokens impossible", e.getCause());
+                }
+            }
+        } finally {
+            PerformanceMetrics.recordTime(METRIC_WAIT, SystemClock.elapsedRealtime() - start);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
     
     /**
      * Sauvegarde du token d'accès
+     * La session en mémoire est remplacée tout de suite ; l'écriture a lieu dès l'ouverture du stockage
      */
     public void saveAccessToken(String token) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putString(KEY_ACCESS_TOKEN, token);
+        // Nouvelle session (claims décodés ici, une fois pour toutes)
+        SESSION.set(AuthSession.fromToken(token));
         
-        // Extraire et sauvegarder la date d'expiration du token
-        long expiryTime = extractTokenExpiry(token);
-        editor.putLong(KEY_TOKEN_EXPIRY, expiryTime);
-        
-        editor.apply();
+        whenOpen(prefs -> prefs.edit().putString(KEY_ACCESS_TOKEN, token).apply());
     }
     
     /**
-     * Sauvegarde du token de rafraîchissement
+     * Sauvegarde du token de rafraîchissement (écrite dès l'ouverture du stockage)
      */
     public void saveRefreshToken(String token) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putString(KEY_REFRESH_TOKEN, token);
-        editor.apply();
+        whenOpen(prefs -> prefs.edit().putString(KEY_REFRESH_TOKEN, token).apply());
+    }
+    
+    /**
+     * Session disponible sans attente (stockage ouvert, ou token enregistré depuis le démarrage)
+     */
+    public boolean isReady() {
+        return SESSION.get() != null;
+    }
+    
+    /**
+     * Session courante transmise sur le thread principal, sans bloquer : immédiatement si elle est déjà
+     * en mémoire, sinon dès l'ouverture du stockage
+     * À utiliser depuis le thread principal (ViewModels)
+     */
+    public void getSession(SessionCallback callback) {
+        AuthSession session = SESSION.get();
+        if (session != null) {
+            callback.onSession(session);
+            return;
+        }
+        whenOpen(prefs -> executors.mainThread().execute(() -> callback.onSession(getSession())));
+    }
+    
+    /**
+     * Session courante (AuthSession.NONE si aucun utilisateur n'est connecté)
+     * Lecture bloquante bornée : si le stockage n'est toujours pas ouvert après le délai, retourne NONE
+     * sans la mémoriser (la lecture suivante réessaie)
+     */
+    public AuthSession getSession() {
+        AuthSession session = SESSION.get();
+        if (session == null) {
+            SharedPreferences prefs = preferences();
+            if (prefs == null) {
+                return AuthSession.NONE;
+            }
+            // Session pas encore chargée par l'ouverture du stockage ; un enregistrement concurrent l'emporte
+            SESSION.compareAndSet(null, AuthSession.fromToken(prefs.getString(KEY_ACCESS_TOKEN, null)));
+            session = SESSION.get();
+        }
+        return session;
     }
     
     /**
      * Récupération du token d'accès
      */
     public String getAccessToken() {
-        return sharedPreferences.getString(KEY_ACCESS_TOKEN, null);
+        return getSession().getAccessToken();
     }
     
     /**
      * Récupération du token de rafraîchissement
      */
     public String getRefreshToken() {
-        return sharedPreferences.getString(KEY_REFRESH_TOKEN, null);
+        SharedPreferences prefs = preferences();
+        return prefs != null ? prefs.getString(KEY_REFRESH_TOKEN, null) : null;
     }
     
     /**
      * Vérification de l'expiration du token
      */
     public boolean isTokenExpired() {
-        long expiryTime = sharedPreferences.getLong(KEY_TOKEN_EXPIRY, 0);
-        long currentTime = System.currentTimeMillis() / 1000; // Convertir en secondes
-        
-        return currentTime >= expiryTime;
+        return getSession().isExpired();
     }
     
     /**
-     * Suppression de tous les tokens
+     * Suppression de tous les tokens (session vidée tout de suite, préférences dès l'ouverture du stockage)
      */
     public void clearTokens() {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.remove(KEY_ACCESS_TOKEN);
-        editor.remove(KEY_REFRESH_TOKEN);
-        editor.remove(KEY_TOKEN_EXPIRY);
-        editor.apply();
-    }
-    
-    /**
-     * Extraction de la date d'expiration depuis le token JWT
-     */
-    private long extractTokenExpiry(String token) {
-        try {
-            // Diviser le token JWT en ses parties
-            String[] parts = token.split("\\.");
-            if (parts.length != 3) {
-                return 0;
-            }
-            
-            // Décoder la partie payload (index 1)
-            String payload = parts[1];
-            
-            // Ajouter le padding si nécessaire
-            while (payload.length() % 4 != 0) {
-                payload += "=";
-            }
-            
-            // Décoder en Base64
-            byte[] decodedBytes = Base64.decode(payload, Base64.URL_SAFE);
-            String decodedPayload = new String(decodedBytes);
-            
-            // Parser le JSON pour extraire 'exp'
-            JSONObject jsonObject = new JSONObject(decodedPayload);
-            return jsonObject.optLong("exp", 0);
-            
-        } catch (Exception e) {
-            // En cas d'erreur, retourner 0 (token considéré comme expiré)
-            return 0;
-        }
+        SESSION.set(AuthSession.NONE);
+        
+        whenOpen(prefs -> prefs.edit()
+            .remove(KEY_ACCESS_TOKEN)
+            .remove(KEY_REFRESH_TOKEN)
+            .remove(KEY_TOKEN_EXPIRY)
+            .apply());
     }
     
     /**
      * Vérification de la validité du token
      */
     public boolean isTokenValid() {
-        String token = getAccessToken();
-        return token != null && !isTokenExpired();
+        AuthSession session = getSession();
+        return session.isAuthenticated() && !session.isExpired();
     }
     
     /**
      * Obtention du token avec le préfixe Bearer
      */
     public String getBearerToken() {
-        String token = getAccessToken();
-        return token != null ? "Bearer " + token : null;
+        return getSession().getAuthorizationHeader();
     }
     
     /**
      * Extraction de l'ID utilisateur depuis le token
      */
     public int getUserIdFromToken() {
-        try {
-            String token = getAccessToken();
-            if (token == null) return -1;
-            
-            String[] parts = token.split("\\.");
-            if (parts.length != 3) return -1;
-            
-            String payload = parts[1];
-            while (payload.length() % 4 != 0) {
-                payload += "=";
-            }
-            
-            byte[] decodedBytes = Base64.decode(payload, Base64.URL_SAFE);
-            String decodedPayload = new String(decodedBytes);
-            
-            JSONObject jsonObject = new JSONObject(decodedPayload);
-            return jsonObject.optInt("user_id", -1);
-            
-        } catch (Exception e) {
-            return -1;
-        }
+        return getSession().getUserId();
     }
 }
 
@@ -87,47 +87,53 @@ public class AuthViewModel extends ViewModel {
      * Déconnexion utilisateur
      */
     public void logout() {
-        String token = tokenManager.getAccessToken();
-        if (token != null) {
-            authRepository.logout(token);
-        }
+        // Token lu dans la session (sans attendre le stockage), puis nettoyé
+        tokenManager.getSession(session -> {
+            String token = session.getAccessToken();
+            if (token != null) {
+                authRepository.logout(token);
+            }
+            tokenManager.clearTokens();
+        });
         
-        // Nettoyer les tokens et l'état
-        tokenManager.clearTokens();
+        // Nettoyer l'état
         currentUser.setValue(null);
         authState.setValue(new AuthState(AuthState.Status.IDLE, null, null));
     }
     
     /**
-     * Vérification de l'état de connexion
+     * Vérification de l'état de connexion, publiée dès que la session est disponible
      */
-    public boolean isLoggedIn() {
-        return tokenManager.getAccessToken() != null && !tokenManager.isTokenExpired();
+    public LiveData<Boolean> isLoggedIn() {
+        MutableLiveData<Boolean> loggedIn = new MutableLiveData<>();
+        tokenManager.getSession(session -> loggedIn.setValue(session.isAuthenticated() && !session.isExpired()));
+        return loggedIn;
     }
     
     /**
      * Récupération du profil utilisateur
      */
     public void getUserProfile() {
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            authState.setValue(new AuthState(AuthState.Status.ERROR, null, "Token non disponible"));
-            return;
-        }
-        
-        authRepository.getUserProfile(token, new AuthRepository.UserCallback() {
-            @Override
-            public void onSuccess(User user) {
-                currentUser.setValue(user);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                authState.setValue(new AuthState(AuthState.Status.ERROR, null, "Token non disponible"));
+                return;
             }
             
-            @Override
-            public void onError(String error) {
-                // En cas d'erreur, peut-être que le token a expiré
-                if (error.contains("401") || error.contains("Unauthorized")) {
-                    logout();
+            authRepository.getUserProfile(new AuthRepository.UserCallback() {
+                @Override
+                public void onSuccess(User user) {
+                    currentUser.setValue(user);
                 }
-            }
+                
+                @Override
+                public void onError(String error) {
+                    // En cas d'erreur, peut-être que le token a expiré
+                    if (error.contains("401") || error.contains("Unauthorized")) {
+                        logout();
+                    }
+                }
+            });
         });
     }
     
@@ -0,0 +1,257 @@
+package com.crowdfundpro.android.ui.dashboard;
+
+import android.os.SystemClock;
+import com.crowdfundpro.android.data.InvestmentRepository;
+import com.crowdfundpro.android.data.ProjectRepository;
+import com.crowdfundpro.android.data.RequestHandle;
+import com.crowdfundpro.android.data.SyncEngine;
+import com.crowdfundpro.android.data.api.ProjectApiService;
+import com.crowdfundpro.android.data.db.DatabaseMigrations;
+import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.utils.AppExecutors;
+import com.crowdfundpro.android.utils.PerformanceMetrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chargement parallèle des sections du tableau de bord
+ * Les investissements, le nombre de projets et les projets de l'activité récente sont demandés en même temps ;
+ * chaque section est transmise dès que ses données arrivent, sans attendre les autres
+ * Toutes les méthodes et tous les callbacks s'exécutent sur le thread principal
+ */
+public class DashboardLoader {
+    
+    // Nombre d'éléments affichés dans l'activité récente
+    static final int RECENT_ACTIVITY_SIZE = 5;
+    
+    static final String METRIC_TOTAL = "dashboard.load";
+    static final String METRIC_FIRST_SECTION = "dashboard.first_section";
+    // Même mesure au premier lancement après une mise à jour (base migrée dans ce processus)
+    static final String METRIC_FIRST_SECTION_AFTER_UPGRADE = "dashboard.first_section.after_upgrade";
+    static final String METRIC_INVESTMENTS = "dashboard.branch.investments";
+    static final String METRIC_PROJECT_COUNT = "dashboard.branch.project_count";
+    static final String METRIC_RECENT_PROJECTS = "dashboard.branch.recent_projects";
+    
+    /**
+     * Réception des sections, dans l'ordre où elles arrivent
+     */
+    public interface Listener {
+        void onInvestmentsSynced(int changedRows);
+        void onProjectCount(int totalProjects);
+        void onRecentActivity(List<Investment> recentInvestments, Map<Integer, Project> projects);
+        void onError(String error);
+        void onComplete();
+    }
+    
+    private final ProjectRepository projectRepository;
+    private final InvestmentRepository investmentRepository;
+    private final SyncEngine syncEngine;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    
+    private final List<RequestHandle> requests = new ArrayList<>();
+    private final Map<Integer, Project> knownProjects = new HashMap<>();
+    private List<Investment> recentInvestments = new ArrayList<>();
+    private Listener listener;
+    private long startedAt;
+    private int pendingBranches;
+    private boolean firstSectionRecorded;
+    
+    public DashboardLoader(ProjectRepository projectRepository, InvestmentRepository investmentRepository,
+                           SyncEngine syncEngine) {
+        this.projectRepository = projectRepository;
+        this.investmentRepository = investmentRepository;
+        this.syncEngine = syncEngine;
+    }
+    
+    /**
+     * Lancement des trois branches (annule un chargement précédent encore en cours)
+     */
+    public void load(int userId, Listener listener) {
+        cancel();
+        this.listener = listener;
+        startedAt = SystemClock.elapsedRealtime();
+        firstSectionRecorded = false;
+        knownProjects.clear();
+        recentInvestments = new ArrayList<>();
+        pendingBranches = 3;
+        
+        loadInvestments(userId);
+        loadProjectCount();
+        loadRecentProjects(userId);
+    }
+    
+    /**
+     * Annulation de toutes les requêtes en cours
+     */
+    public void cancel() {
+        for (RequestHandle request : requests) {
+            request.cancel();
+        }
+        requests.clear();
+        listener = null;
+    }
+    
+    /**
+     * Branche 1 : synchronisation différentielle des investissements de l'utilisateur
+     * Seules les modifications depuis la dernière synchronisation sont téléchargées ; les statistiques suivent via la base
+     */
+    private void loadInvestments(int userId) {
+        final long branchStart = SystemClock.elapsedRealtime();
+        final Listener target = listener;
+        requests.add(syncEngine.syncInvestments(userId, new SyncEngine.SyncCallback() {
+            @Override
+            public void onSynced(int changedRows) {
+                if (listener != target) return;
+                PerformanceMetrics.recordTime(METRIC_INVESTMENTS, SystemClock.elapsedRealtime() - branchStart);
+                onSection();
+                target.onInvestmentsSynced(changedRows);
+                
+                // La base synchronisée fait foi pour l'activité récente
+                final RequestHandle localRead = new RequestHandle(null);
+                requests.add(localRead);
+                executors.io().execute(() -> {
+                    List<Investment> recent = investmentRepository.getLocalRecentInvestments(userId, RECENT_ACTIVITY_SIZE);
+                    localRead.deliver(executors.mainThread(), () -> {
+                        if (listener != target) return;
+                        resolveRecentActivity(recent);
+                        onBranchDone();
+                    });
+                });
+            }
+            
+            @Override
+            public void onError(String error) {
+                if (listener != target) return;
+                PerformanceMetrics.recordTime(METRIC_INVESTMENTS, SystemClock.elapsedRealtime() - branchStart);
+                target.onError(error);
+                onBranchDone();
+            }
+        }));
+    }
+    
+    /**
+     * Branche 2 : nombre total de projets (une page d'un seul élément suffit pour lire le compteur)
+     */
+    private void loadProjectCount() {
+        final long branchStart = SystemClock.elapsedRealtime();
+        final Listener target = listener;
+        requests.add(projectRepository.getProjects(1, 1, null, null, null, new ProjectRepository.ProjectListCallback() {
+            @Override
+            public void onSuccess(ProjectApiService.ProjectListResponse response) {
+                if (listener != target) return;
+                PerformanceMetrics.recordTime(METRIC_PROJECT_COUNT, SystemClock.elapsedRealtime() - branchStart);
+                onSection();
+                target.onProjectCount(response.getCount());
+                onBranchDone();
+            }
+            
+            @Override
+            public void onError(String error) {
+                if (listener != target) return;
+                PerformanceMetrics.recordTime(METRIC_PROJECT_COUNT, SystemClock.elapsedRealtime() - branchStart);
+                onBranchDone();
+            }
+        }));
+    }
+    
+    /**
+     * Branche 3 : derniers investissements connus en local et leurs projets, lus en une seule passe
+     * Permet d'afficher l'activité récente sans attendre la réponse du serveur
+     */
+    private void loadRecentProjects(int userId) {
+        final long branchStart = SystemClock.elapsedRealtime();
+        final Listener target = listener;
+        final RequestHandle localRead = new RequestHandle(null);
+        requests.add(localRead);
+        executors.io().execute(() -> {
+            List<Investment> recent = investmentRepository.getLocalRecentInvestments(userId, RECENT_ACTIVITY_SIZE);
+            List<Project> projects = recent.isEmpty()
+                ? new ArrayList<>()
+                : projectRepository.getLocalProjects(projectIdsOf(recent));
+            localRead.deliver(executors.mainThread(), () -> {
+                if (listener != target) return;
+                PerformanceMetrics.recordTime(METRIC_RECENT_PROJECTS, SystemClock.elapsedRealtime() - branchStart);
+                for (Project project : projects) {
+                    knownProjects.put(project.getId(), project);
+                }
+                // La réponse du serveur a pu arriver avant la lecture locale : elle reste prioritaire
+                if (recentInvestments.isEmpty() && !recent.isEmpty()) {
+                    recentInvestments = recent;
+                    onSection();
+                    publishRecentActivity();
+                } else if (!recentInvestments.isEmpty() && !projects.isEmpty()) {
+                    publishRecentActivity();
+                }
+                onBranchDone();
+            });
+        });
+    }
+    
+    /**
+     * Affichage de l'activité récente puis récupération en parallèle des projets encore inconnus
+     */
+    private void resolveRecentActivity(List<Investment> recent) {
+        recentInvestments = recent;
+        publishRecentActivity();
+        
+        final Listener target = listener;
+        for (Integer projectId : projectIdsOf(recent)) {
+            if (knownProjects.containsKey(projectId)) continue;
+            
+            pendingBranches++;
+            requests.add(projectRepository.getProject(projectId, new ProjectRepository.ProjectCallback() {
+                @Override
+                public void onSuccess(Project project) {
+                    if (listener != target) return;
+                    knownProjects.put(project.getId(), project);
+                    publishRecentActivity();
+                    onBranchDone();
+                }
+                
+                @Override
+                public void onError(String error) {
+                    if (listener != target) return;
+                    onBranchDone();
+                }
+            }));
+        }
+    }
+    
+    private void publishRecentActivity() {
+        listener.onRecentActivity(recentInvestments, new HashMap<>(knownProjects));
+    }
+    
+    private void onSection() {
+        if (!firstSectionRecorded) {
+            firstSectionRecorded = true;
+            long elapsed = SystemClock.elapsedRealtime() - startedAt;
+            PerformanceMetrics.recordTime(METRIC_FIRST_SECTION, elapsed);
+            if (PerformanceMetrics.get(DatabaseMigrations.METRIC_MIGRATIONS) > 0) {
+                PerformanceMetrics.recordTime(METRIC_FIRST_SECTION_AFTER_UPGRADE, elapsed);
+            }
+        }
+    }
+    
+    private void onBranchDone() {
+        pendingBranches--;
+        if (pendingBranches == 0) {
+            PerformanceMetrics.recordTime(METRIC_TOTAL, SystemClock.elapsedRealtime() - startedAt);
+            Listener target = listener;
+            requests.clear();
+            target.onComplete();
+        }
+    }
+    
+    private static List<Integer> projectIdsOf(List<Investment> investments) {
+        List<Integer> ids = new ArrayList<>();
+        for (Investment investment : investments) {
+            if (!ids.contains(investment.getProjectId())) {
+                ids.add(investment.getProjectId());
+            }
+        }
+        return ids;
+    }
+}
@@ -5,11 +5,18 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.crowdfundpro.android.data.ProjectRepository;
 import com.crowdfundpro.android.data.InvestmentRepository;
+import com.crowdfundpro.android.data.SyncEngine;
 import com.crowdfundpro.android.data.models.Project;
 import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentPeriodTotal;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.InvestmentStatusTotal;
 import com.crowdfundpro.android.utils.TokenManager;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 /**
  * ViewModel pour le tableau de bord
@@ -18,18 +25,34 @@ public class DashboardViewModel extends ViewModel {
     
     private ProjectRepository projectRepository;
     private InvestmentRepository investmentRepository;
+    private SyncEngine syncEngine;
     private TokenManager tokenManager;
     
     private MutableLiveData<DashboardData> dashboardData = new MutableLiveData<>();
     private MutableLiveData<List<RecentActivity>> recentActivity = new MutableLiveData<>();
+    private MutableLiveData<Integer> totalProjects = new MutableLiveData<>();
+    private MutableLiveData<List<InvestmentPeriodTotal>> investmentSeries = new MutableLiveData<>();
     private MutableLiveData<Boolean> loading = new MutableLiveData<>();
     private MutableLiveData<String> error = new MutableLiveData<>();
     
+    private DashboardLoader dashboardLoader;
+    
+    // Nombre de mois affichés sur le graphique d'évolution
+    static final int SERIES_MONTHS = 12;
+    
+    // Statistiques observées en base locale
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private Disposable statsSubscription;
+    private Disposable seriesSubscription;
+    private volatile int knownTotalProjects;
+    
     public DashboardViewModel() {
         // TODO: Injection de dépendances à implémenter
         // projectRepository = DependencyInjection.getProjectRepository();
         // investmentRepository = DependencyInjection.getInvestmentRepository();
+        // syncEngine = DependencyInjection.getSyncEngine();
         // tokenManager = DependencyInjection.getTokenManager();
+        dashboardLoader = new DashboardLoader(projectRepository, investmentRepository, syncEngine);
         loading.setValue(false);
     }
     
@@ -41,6 +64,14 @@ public class DashboardViewModel extends ViewModel {
         return recentActivity;
     }
     
+    public LiveData<Integer> getTotalProjects() {
+        return totalProjects;
+    }
+    
+    public LiveData<List<InvestmentPeriodTotal>> getInvestmentSeries() {
+        return investmentSeries;
+    }
+    
     public LiveData<Boolean> getLoading() {
         return loading;
     }
@@ -51,82 +82,128 @@ public class DashboardViewModel extends ViewModel {
     
     /**
      * Chargement des données du tableau de bord
+     * Les sections sont chargées en parallèle et affichées dès que chacune est prête
      */
     public void loadDashboardData() {
         loading.setValue(true);
         error.setValue(null);
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            loading.setValue(false);
-            return;
-        }
-        
-        // Charger les investissements de l'utilisateur
-        investmentRepository.getUserInvestments(token, new InvestmentRepository.InvestmentListCallback() {
-            @Override
-            public void onSuccess(List<Investment> investments) {
-                calculateDashboardStats(investments);
-                generateRecentActivity(investments);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
                 loading.setValue(false);
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-                loading.setValue(false);
-            }
+            int userId = session.getUserId();
+            observeDashboardStats(userId);
+            dashboardLoader.load(userId, new DashboardLoader.Listener() {
+                @Override
+                public void onInvestmentsSynced(int changedRows) {
+                    // Les modifications sont fusionnées en base : les statistiques suivent via l'observation
+                    loading.setValue(false);
+                }
+                
+                @Override
+                public void onProjectCount(int count) {
+                    knownTotalProjects = count;
+                    totalProjects.setValue(count);
+                    DashboardData current = dashboardData.getValue();
+                    if (current != null) {
+                        dashboardData.setValue(current.withTotalProjects(count));
+                    }
+                }
+                
+                @Override
+                public void onRecentActivity(List<Investment> recentInvestments, Map<Integer, Project> projects) {
+                    generateRecentActivity(recentInvestments, projects);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                }
+                
+                @Override
+                public void onComplete() {
+                    loading.setValue(false);
+                }
+            });
         });
     }
     
     /**
-     * Calcul des statistiques du tableau de bord
+     * Abonnement aux statistiques calculées en base (GROUP BY status) et à la série mensuelle
+     * La requête s'exécute hors du thread principal et n'est relancée que lorsque la table change
+     */
+    private void observeDashboardStats(int userId) {
+        if (statsSubscription != null) {
+            disposables.remove(statsSubscription);
+        }
+        statsSubscription = investmentRepository.observeInvestmentTotalsByStatus(userId)
+            .map(this::toDashboardData)
+            .subscribe(
+                dashboardData::postValue,
+                throwable -> error.postValue("Erreur de lecture locale: " + throwable.getMessage())
+            );
+        disposables.add(statsSubscription);
+        
+        if (seriesSubscription != null) {
+            disposables.remove(seriesSubscription);
+        }
+        seriesSubscription = investmentRepository
+            .observeInvestmentSeries(userId, InvestmentRepository.Period.MONTH, SERIES_MONTHS)
+            .subscribe(
+                investmentSeries::postValue,
+                throwable -> error.postValue("Erreur de lecture locale: " + throwable.getMessage())
+            );
+        disposables.add(seriesSubscription);
+    }
+    
+    /**
+     * Conversion des totaux par statut (quelques lignes au plus) en données du tableau de bord
      */
-    private void calculateDashboardStats(List<Investment> investments) {
+    private DashboardData toDashboardData(List<InvestmentStatusTotal> totals) {
         double totalInvested = 0;
         int activeInvestments = 0;
         int completedInvestments = 0;
         int failedInvestments = 0;
         
-        for (Investment investment : investments) {
-            if ("COMPLETED".equals(investment.getStatus())) {
-                totalInvested += investment.getAmount();
-                completedInvestments++;
-            } else if ("PENDING".equals(investment.getStatus())) {
-                activeInvestments++;
-            } else if ("FAILED".equals(investment.getStatus())) {
-                failedInvestments++;
+        for (InvestmentStatusTotal total : totals) {
+            if (total.getStatus() == InvestmentStatus.COMPLETED) {
+                totalInvested = total.getTotalAmount();
+                completedInvestments = total.getInvestmentCount();
+            } else if (total.getStatus() == InvestmentStatus.PENDING) {
+                activeInvestments = total.getInvestmentCount();
+            } else if (total.getStatus() == InvestmentStatus.FAILED) {
+                failedInvestments = total.getInvestmentCount();
             }
         }
         
-        // TODO: Récupérer le nombre total de projets depuis l'API
-        int totalProjects = 0;
-        
-        DashboardData data = new DashboardData(
+        // Le nombre de projets arrive par une autre branche, éventuellement avant les statistiques
+        return new DashboardData(
             totalInvested,
             activeInvestments,
             completedInvestments,
             failedInvestments,
-            totalProjects
+            knownTotalProjects
         );
-        
-        dashboardData.setValue(data);
     }
     
     /**
      * Génération de l'activité récente
      */
-    private void generateRecentActivity(List<Investment> investments) {
+    private void generateRecentActivity(List<Investment> investments, Map<Integer, Project> projects) {
         List<RecentActivity> activities = new ArrayList<>();
         
-        // Prendre les 5 derniers investissements
-        int count = Math.min(investments.size(), 5);
-        for (int i = 0; i < count; i++) {
-            Investment investment = investments.get(i);
+        for (Investment investment : investments) {
+            Project project = projects.get(investment.getProjectId());
+            String projectLabel = project != null
+                ? project.getTitle()
+                : String.format("le projet #%d", investment.getProjectId());
             
-            String description = String.format("Investissement de %.2f€ dans le projet #%d", 
-                investment.getAmount(), investment.getProjectId());
+            String description = String.format("Investissement de %.2f€ dans %s", 
+                investment.getAmount(), projectLabel);
             
             RecentActivity activity = new RecentActivity(
                 description,
@@ -140,13 +217,14 @@ public class DashboardViewModel extends ViewModel {
         recentActivity.setValue(activities);
     }
     
-    private RecentActivity.Type getActivityType(String status) {
+    private RecentActivity.Type getActivityType(InvestmentStatus status) {
+        if (status == null) return RecentActivity.Type.OTHER;
         switch (status) {
-            case "COMPLETED":
+            case COMPLETED:
                 return RecentActivity.Type.INVESTMENT_SUCCESS;
-            case "FAILED":
+            case FAILED:
                 return RecentActivity.Type.INVESTMENT_FAILED;
-            case "PENDING":
+            case PENDING:
                 return RecentActivity.Type.INVESTMENT_PENDING;
             default:
                 return RecentActivity.Type.OTHER;
@@ -160,6 +238,13 @@ public class DashboardViewModel extends ViewModel {
         loadDashboardData();
     }
     
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        dashboardLoader.cancel();
+        disposables.clear();
+    }
+    
     /**
      * Classe pour représenter les données du tableau de bord
      */
@@ -185,6 +270,14 @@ public class DashboardViewModel extends ViewModel {
         public int getCompletedInvestments() { return completedInvestments; }
         public int getFailedInvestments() { return failedInvestments; }
         public int getTotalProjects() { return totalProjects; }
+        
+        /**
+         * Copie avec un nombre de projets mis à jour
+         */
+        public DashboardData withTotalProjects(int totalProjects) {
+            return new DashboardData(totalInvested, activeInvestments, completedInvestments,
+                failedInvestments, totalProjects);
+        }
     }
     
     /**
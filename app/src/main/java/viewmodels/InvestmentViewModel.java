@@ -4,9 +4,15 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.crowdfundpro.android.data.InvestmentRepository;
+import com.crowdfundpro.android.data.RequestHandle;
 import com.crowdfundpro.android.data.api.InvestmentApiService;
 import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.InvestmentWithProject;
 import com.crowdfundpro.android.utils.TokenManager;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import java.util.List;
 
 /**
@@ -17,13 +23,20 @@ public class InvestmentViewModel extends ViewModel {
     private InvestmentRepository investmentRepository;
     private TokenManager tokenManager;
     
-    private MutableLiveData<List<Investment>> investments = new MutableLiveData<>();
+    private MutableLiveData<List<InvestmentWithProject>> investments = new MutableLiveData<>();
     private MutableLiveData<InvestmentState> investmentState = new MutableLiveData<>();
     private MutableLiveData<Boolean> loading = new MutableLiveData<>();
     private MutableLiveData<String> error = new MutableLiveData<>();
     
     private Investment currentInvestment;
     
+    // Chargement de liste en cours, annulé lorsqu'un nouveau chargement le remplace
+    private RequestHandle investmentsRequest;
+    
+    // Abonnements aux requêtes Room observables
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private Disposable investmentsSubscription;
+    
     public InvestmentViewModel() {
         // TODO: Injection de dépendances à implémenter
         // investmentRepository = DependencyInjection.getInvestmentRepository();
@@ -32,7 +45,7 @@ public class InvestmentViewModel extends ViewModel {
         loading.setValue(false);
     }
     
-    public LiveData<List<Investment>> getInvestments() {
+    public LiveData<List<InvestmentWithProject>> getInvestments() {
         return investments;
     }
     
@@ -54,37 +67,38 @@ public class InvestmentViewModel extends ViewModel {
     public void createInvestment(int projectId, double amount, String paymentMethod) {
         investmentState.setValue(new InvestmentState(InvestmentState.Status.LOADING, null, null));
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            investmentState.setValue(new InvestmentState(InvestmentState.Status.ERROR, 
-                null, "Token d'authentification manquant"));
-            return;
-        }
-        
-        InvestmentApiService.InvestmentRequest request = 
-            new InvestmentApiService.InvestmentRequest(projectId, amount, paymentMethod);
-        
-        investmentRepository.createInvestment(token, request, new InvestmentRepository.InvestmentCallback() {
-            @Override
-            public void onSuccess(Investment investment) {
-                currentInvestment = investment;
-                
-                if ("PENDING".equals(investment.getStatus())) {
-                    // L'investissement nécessite un paiement
-                    investmentState.setValue(new InvestmentState(InvestmentState.Status.PAYMENT_REQUIRED, 
-                        investment, "Paiement requis"));
-                } else if ("COMPLETED".equals(investment.getStatus())) {
-                    // L'investissement est déjà complété
-                    investmentState.setValue(new InvestmentState(InvestmentState.Status.SUCCESS, 
-                        investment, "Investissement réussi"));
-                }
-            }
-            
-            @Override
-            public void onError(String errorMessage) {
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
                 investmentState.setValue(new InvestmentState(InvestmentState.Status.ERROR, 
-                    null, errorMessage));
+                    null, "Token d'authentification manquant"));
+                return;
             }
+            
+            InvestmentApiService.InvestmentRequest request = 
+                new InvestmentApiService.InvestmentRequest(projectId, amount, paymentMethod);
+            
+            investmentRepository.createInvestment(request, new InvestmentRepository.InvestmentCallback() {
+                @Override
+                public void onSuccess(Investment investment) {
+                    currentInvestment = investment;
+                    
+                    if (investment.getStatus() == InvestmentStatus.PENDING) {
+                        // L'investissement nécessite un paiement
+                        investmentState.setValue(new InvestmentState(InvestmentState.Status.PAYMENT_REQUIRED, 
+                            investment, "Paiement requis"));
+                    } else if (investment.getStatus() == InvestmentStatus.COMPLETED) {
+                        // L'investissement est déjà complété
+                        investmentState.setValue(new InvestmentState(InvestmentState.Status.SUCCESS, 
+                            investment, "Investissement réussi"));
+                    }
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    investmentState.setValue(new InvestmentState(InvestmentState.Status.ERROR, 
+                        null, errorMessage));
+                }
+            });
         });
     }
     
@@ -100,20 +114,21 @@ public class InvestmentViewModel extends ViewModel {
         
         investmentState.setValue(new InvestmentState(InvestmentState.Status.LOADING, null, null));
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            investmentState.setValue(new InvestmentState(InvestmentState.Status.ERROR, 
-                null, "Token d'authentification manquant"));
-            return;
-        }
-        
-        // TODO: Implémenter la confirmation de paiement avec Stripe
-        // Cette méthode devrait appeler l'API pour confirmer le paiement
-        // avec les détails de la transaction Stripe
-        
-        // Pour l'instant, simuler une confirmation réussie
-        investmentState.setValue(new InvestmentState(InvestmentState.Status.SUCCESS, 
-            currentInvestment, "Paiement confirmé"));
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                investmentState.setValue(new InvestmentState(InvestmentState.Status.ERROR, 
+                    null, "Token d'authentification manquant"));
+                return;
+            }
+            
+            // TODO: Implémenter la confirmation de paiement avec Stripe
+            // Cette méthode devrait appeler l'API pour confirmer le paiement
+            // avec les détails de la transaction Stripe
+            
+            // Pour l'instant, simuler une confirmation réussie
+            investmentState.setValue(new InvestmentState(InvestmentState.Status.SUCCESS, 
+                currentInvestment, "Paiement confirmé"));
+        });
     }
     
     /**
@@ -123,25 +138,31 @@ public class InvestmentViewModel extends ViewModel {
         loading.setValue(true);
         error.setValue(null);
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            loading.setValue(false);
-            return;
-        }
-        
-        investmentRepository.getUserInvestments(token, new InvestmentRepository.InvestmentListCallback() {
-            @Override
-            public void onSuccess(List<Investment> investmentList) {
-                investments.setValue(investmentList);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
                 loading.setValue(false);
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-                loading.setValue(false);
-            }
+            // La liste suit la table locale : toute écriture (annulation, paiement...) la met à jour
+            // Les titres de projet viennent de la même requête (jointure), sans lecture par ligne affichée
+            observeInvestments(investmentRepository.observeUserInvestmentRows(session.getUserId()));
+            
+            RequestHandle.cancel(investmentsRequest);
+            investmentsRequest = investmentRepository.getUserInvestments(session.getUserId(), new InvestmentRepository.InvestmentListCallback() {
+                @Override
+                public void onSuccess(List<Investment> investmentList) {
+                    // Réponse mise en cache : la liste affichée est réémise par la base
+                    loading.setValue(false);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                    loading.setValue(false);
+                }
+            });
         });
     }
     
@@ -152,10 +173,13 @@ public class InvestmentViewModel extends ViewModel {
         loading.setValue(true);
         error.setValue(null);
         
-        investmentRepository.getProjectInvestments(projectId, new InvestmentRepository.InvestmentListCallback() {
+        observeInvestments(investmentRepository.observeProjectInvestmentRows(projectId));
+        
+        RequestHandle.cancel(investmentsRequest);
+        investmentsRequest = investmentRepository.getProjectInvestments(projectId, new InvestmentRepository.InvestmentListCallback() {
             @Override
             public void onSuccess(List<Investment> investmentList) {
-                investments.setValue(investmentList);
+                // Réponse mise en cache : la liste affichée est réémise par la base
                 loading.setValue(false);
             }
             
@@ -174,29 +198,50 @@ public class InvestmentViewModel extends ViewModel {
         loading.setValue(true);
         error.setValue(null);
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            loading.setValue(false);
-            return;
-        }
-        
-        investmentRepository.cancelInvestment(token, investmentId, new InvestmentRepository.InvestmentCallback() {
-            @Override
-            public void onSuccess(Investment investment) {
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
                 loading.setValue(false);
-                // Recharger la liste des investissements
-                loadUserInvestments();
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-                loading.setValue(false);
-            }
+            investmentRepository.cancelInvestment(investmentId, new InvestmentRepository.InvestmentCallback() {
+                @Override
+                public void onSuccess(Investment investment) {
+                    // Le statut est mis à jour en base : la liste observée se rafraîchit sans appel réseau
+                    loading.setValue(false);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                    loading.setValue(false);
+                }
+            });
         });
     }
     
+    /**
+     * Abonnement à une liste d'investissements en base locale (remplace l'abonnement précédent)
+     */
+    private void observeInvestments(Flowable<List<InvestmentWithProject>> source) {
+        if (investmentsSubscription != null) {
+            disposables.remove(investmentsSubscription);
+        }
+        investmentsSubscription = source.subscribe(
+            investments::postValue,
+            throwable -> error.postValue("Erreur de lecture locale: " + throwable.getMessage())
+        );
+        disposables.add(investmentsSubscription);
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        RequestHandle.cancel(investmentsRequest);
+        disposables.clear();
+    }
+    
     /**
      * Classe pour représenter l'état de l'investissement
      */
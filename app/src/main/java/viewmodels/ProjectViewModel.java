@@ -3,11 +3,17 @@ package com.crowdfundpro.android.ui.projects;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import com.crowdfundpro.android.data.ProjectPager;
 import com.crowdfundpro.android.data.ProjectRepository;
+import com.crowdfundpro.android.data.RequestHandle;
+import com.crowdfundpro.android.data.SyncEngine;
 import com.crowdfundpro.android.data.api.ProjectApiService;
 import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectStatus;
 import com.crowdfundpro.android.data.models.Category;
 import com.crowdfundpro.android.utils.TokenManager;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import java.util.List;
 
 /**
@@ -16,6 +22,7 @@ import java.util.List;
 public class ProjectViewModel extends ViewModel {
     
     private ProjectRepository projectRepository;
+    private SyncEngine syncEngine;
     private TokenManager tokenManager;
     
     private MutableLiveData<List<Project>> projects = new MutableLiveData<>();
@@ -24,9 +31,31 @@ public class ProjectViewModel extends ViewModel {
     private MutableLiveData<Boolean> loading = new MutableLiveData<>();
     private MutableLiveData<String> error = new MutableLiveData<>();
     
+    // Taille des pages de la liste et nombre de pages gardées en mémoire
+    static final int FEED_PAGE_SIZE = 20;
+    static final int FEED_MAX_PAGES = 5;
+    
+    // Flux paginé de la liste des projets et ses filtres courants
+    private ProjectPager projectFeed;
+    private Integer feedCategoryId;
+    private String feedSearchQuery;
+    private ProjectStatus feedStatus = ProjectStatus.ACTIVE;
+    
+    // Requêtes en cours, annulées lorsqu'une nouvelle requête les remplace
+    private RequestHandle projectsRequest;
+    private RequestHandle projectRequest;
+    private RequestHandle categoriesRequest;
+    private RequestHandle syncRequest;
+    
+    // Abonnements aux requêtes Room observables
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private Disposable selectedProjectSubscription;
+    private Disposable categoriesSubscription;
+    
     public ProjectViewModel() {
         // TODO: Injection de dépendances à implémenter
         // projectRepository = DependencyInjection.getProjectRepository();
+        // syncEngine = DependencyInjection.getSyncEngine();
         // tokenManager = DependencyInjection.getTokenManager();
         loading.setValue(false);
     }
@@ -54,11 +83,13 @@ public class ProjectViewModel extends ViewModel {
     /**
      * Chargement des projets avec filtres
      */
-    public void loadProjects(int page, int pageSize, Integer categoryId, String searchQuery, String status) {
+    public void loadProjects(int page, int pageSize, Integer categoryId, String searchQuery, ProjectStatus status) {
         loading.setValue(true);
         error.setValue(null);
         
-        projectRepository.getProjects(page, pageSize, categoryId, searchQuery, status, 
+        // La liste précédente (autre filtre, autre recherche) n'est plus utile
+        RequestHandle.cancel(projectsRequest);
+        projectsRequest = projectRepository.getProjects(page, pageSize, categoryId, searchQuery, status, 
             new ProjectRepository.ProjectListCallback() {
                 @Override
                 public void onSuccess(ProjectApiService.ProjectListResponse response) {
@@ -74,6 +105,72 @@ public class ProjectViewModel extends ViewModel {
             });
     }
     
+    /**
+     * Chargement du flux paginé des projets (première page)
+     * Sans recherche, la première page est affichée immédiatement depuis l'index en mémoire, puis remplacée
+     * par la réponse réseau (réconciliation en arrière-plan) ; les pages suivantes sont demandées par
+     * loadNextPage() au fil du défilement
+     */
+    public void loadProjectFeed(Integer categoryId, String searchQuery, ProjectStatus status) {
+        error.setValue(null);
+        List<Project> indexed = searchQuery == null || searchQuery.trim().isEmpty()
+            ? projectRepository.getIndexedProjects(categoryId, status, FEED_PAGE_SIZE)
+            : null;
+        if (indexed != null && !indexed.isEmpty()) {
+            projects.setValue(indexed);
+        } else {
+            loading.setValue(true);
+        }
+        
+        feedCategoryId = categoryId;
+        feedSearchQuery = searchQuery;
+        feedStatus = status;
+        newProjectFeed().start(feedListener());
+    }
+    
+    private ProjectPager newProjectFeed() {
+        if (projectFeed != null) {
+            projectFeed.cancel();
+        }
+        projectFeed = projectRepository.newPager(feedCategoryId, feedSearchQuery, feedStatus,
+            FEED_PAGE_SIZE, FEED_MAX_PAGES);
+        return projectFeed;
+    }
+    
+    private ProjectPager.Listener feedListener() {
+        return new ProjectPager.Listener() {
+            @Override
+            public void onWindowChanged(List<Project> window) {
+                projects.setValue(window);
+                loading.setValue(false);
+            }
+            
+            @Override
+            public void onError(String errorMessage) {
+                error.setValue(errorMessage);
+                loading.setValue(false);
+            }
+        };
+    }
+    
+    /**
+     * Chargement de la page suivante du flux (sans effet si une page est déjà en cours ou si tout est chargé)
+     */
+    public void loadNextPage() {
+        if (projectFeed != null) {
+            projectFeed.loadNext();
+        }
+    }
+    
+    /**
+     * Rechargement d'une page sortie de la fenêtre en remontant la liste
+     */
+    public void loadPreviousPage() {
+        if (projectFeed != null) {
+            projectFeed.loadPrevious();
+        }
+    }
+    
     /**
      * Chargement des détails d'un projet
      */
@@ -81,7 +178,18 @@ public class ProjectViewModel extends ViewModel {
         loading.setValue(true);
         error.setValue(null);
         
-        projectRepository.getProject(projectId, new ProjectRepository.ProjectCallback() {
+        // Le détail suit la ligne en base : toute mise à jour locale est répercutée
+        if (selectedProjectSubscription != null) {
+            disposables.remove(selectedProjectSubscription);
+        }
+        selectedProjectSubscription = projectRepository.observeProject(projectId).subscribe(
+            selectedProject::postValue,
+            throwable -> error.postValue("Erreur de lecture locale: " + throwable.getMessage())
+        );
+        disposables.add(selectedProjectSubscription);
+        
+        RequestHandle.cancel(projectRequest);
+        projectRequest = projectRepository.getProject(projectId, new ProjectRepository.ProjectCallback() {
             @Override
             public void onSuccess(Project project) {
                 selectedProject.setValue(project);
@@ -100,10 +208,20 @@ public class ProjectViewModel extends ViewModel {
      * Chargement des catégories
      */
     public void loadCategories() {
-        projectRepository.getCategories(new ProjectRepository.CategoryListCallback() {
+        // Un seul abonnement suffit : la table des catégories (pré-remplie à l'installation) est rafraîchie par le réseau
+        if (categoriesSubscription == null) {
+            categoriesSubscription = projectRepository.observeCategories().subscribe(
+                categories::postValue,
+                throwable -> error.postValue("Erreur de lecture locale: " + throwable.getMessage())
+            );
+            disposables.add(categoriesSubscription);
+        }
+        
+        RequestHandle.cancel(categoriesRequest);
+        categoriesRequest = projectRepository.getCategories(new ProjectRepository.CategoryListCallback() {
             @Override
             public void onSuccess(List<Category> categoryList) {
-                categories.setValue(categoryList);
+                // La liste affichée suit la table locale (observeCategories), mise à jour en arrière-plan
             }
             
             @Override
@@ -120,27 +238,28 @@ public class ProjectViewModel extends ViewModel {
         loading.setValue(true);
         error.setValue(null);
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            loading.setValue(false);
-            return;
-        }
-        
-        projectRepository.createProject(token, project, new ProjectRepository.ProjectCallback() {
-            @Override
-            public void onSuccess(Project createdProject) {
-                selectedProject.setValue(createdProject);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
                 loading.setValue(false);
-                // Recharger la liste des projets
-                loadProjects(1, 20, null, "", "ACTIVE");
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-                loading.setValue(false);
-            }
+            projectRepository.createProject(project, new ProjectRepository.ProjectCallback() {
+                @Override
+                public void onSuccess(Project createdProject) {
+                    selectedProject.setValue(createdProject);
+                    loading.setValue(false);
+                    // Recharger la liste des projets
+                    loadProjects(1, 20, null, "", ProjectStatus.ACTIVE);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                    loading.setValue(false);
+                }
+            });
         });
     }
     
@@ -148,29 +267,30 @@ public class ProjectViewModel extends ViewModel {
      * Basculer le statut favori d'un projet
      */
     public void toggleFavorite(Project project) {
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            return;
-        }
-        
-        // TODO: Implémenter la logique de favoris
-        // Cette fonctionnalité nécessiterait des endpoints API supplémentaires
-        // et une gestion de l'état des favoris dans le modèle Project
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
+                return;
+            }
+            
+            // TODO: Implémenter la logique de favoris
+            // Cette fonctionnalité nécessiterait des endpoints API supplémentaires
+            // et une gestion de l'état des favoris dans le modèle Project
+        });
     }
     
     /**
      * Recherche de projets
      */
     public void searchProjects(String query) {
-        loadProjects(1, 20, null, query, "ACTIVE");
+        loadProjects(1, 20, null, query, ProjectStatus.ACTIVE);
     }
     
     /**
      * Filtrage par catégorie
      */
     public void filterByCategory(Integer categoryId) {
-        loadProjects(1, 20, categoryId, "", "ACTIVE");
+        loadProjects(1, 20, categoryId, "", ProjectStatus.ACTIVE);
     }
     
     /**
@@ -185,10 +305,39 @@ public class ProjectViewModel extends ViewModel {
     
     /**
      * Actualisation des données
+     * Seuls les projets modifiés depuis la dernière synchronisation sont téléchargés, puis la liste est relue en base
      */
     public void refresh() {
-        loadProjects(1, 20, null, "", "ACTIVE");
+        loading.setValue(true);
+        error.setValue(null);
+        
+        RequestHandle.cancel(syncRequest);
+        syncRequest = syncEngine.syncProjects(new SyncEngine.SyncCallback() {
+            @Override
+            public void onSynced(int changedRows) {
+                newProjectFeed().startFromCache(feedListener());
+            }
+            
+            @Override
+            public void onError(String errorMessage) {
+                // Le cache reste affichable : l'erreur est signalée mais la liste est relue en base
+                error.setValue(errorMessage);
+                newProjectFeed().startFromCache(feedListener());
+            }
+        });
         loadCategories();
     }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        RequestHandle.cancel(projectsRequest);
+        RequestHandle.cancel(projectRequest);
+        if (projectFeed != null) {
+            projectFeed.cancel();
+        }
+        RequestHandle.cancel(categoriesRequest);
+        RequestHandle.cancel(syncRequest);
+        disposables.clear();
+    }
 }
-
@@ -3,10 +3,13 @@ package com.crowdfundpro.android.ui.social;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import com.crowdfundpro.android.data.RequestHandle;
 import com.crowdfundpro.android.data.SocialRepository;
 import com.crowdfundpro.android.data.models.Comment;
 import com.crowdfundpro.android.data.models.User;
 import com.crowdfundpro.android.utils.TokenManager;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import java.util.List;
 
 /**
@@ -24,6 +27,12 @@ public class SocialViewModel extends ViewModel {
     private MutableLiveData<Boolean> loading = new MutableLiveData<>();
     private MutableLiveData<String> error = new MutableLiveData<>();
     
+    private RequestHandle commentsRequest;
+    
+    // Abonnement aux commentaires stockés en base locale
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private Disposable commentsSubscription;
+    
     public SocialViewModel() {
         // TODO: Injection de dépendances à implémenter
         // socialRepository = DependencyInjection.getSocialRepository();
@@ -62,7 +71,18 @@ public class SocialViewModel extends ViewModel {
         loading.setValue(true);
         error.setValue(null);
         
-        socialRepository.getProjectComments(projectId, new SocialRepository.CommentListCallback() {
+        // Les commentaires publiés ou supprimés arrivent par la base, sans rechargement réseau
+        if (commentsSubscription != null) {
+            disposables.remove(commentsSubscription);
+        }
+        commentsSubscription = socialRepository.observeComments(projectId).subscribe(
+            comments::postValue,
+            throwable -> error.postValue("Erreur de lecture locale: " + throwable.getMessage())
+        );
+        disposables.add(commentsSubscription);
+        
+        RequestHandle.cancel(commentsRequest);
+        commentsRequest = socialRepository.getProjectComments(projectId, new SocialRepository.CommentListCallback() {
             @Override
             public void onSuccess(List<Comment> commentList) {
                 comments.setValue(commentList);
@@ -85,25 +105,26 @@ public class SocialViewModel extends ViewModel {
         error.setValue(null);
         commentPosted.setValue(false);
         
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            loading.setValue(false);
-            return;
-        }
-        
-        socialRepository.postComment(token, projectId, commentText, new SocialRepository.CommentCallback() {
-            @Override
-            public void onSuccess(Comment comment) {
-                commentPosted.setValue(true);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
                 loading.setValue(false);
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-                loading.setValue(false);
-            }
+            socialRepository.postComment(projectId, commentText, new SocialRepository.CommentCallback() {
+                @Override
+                public void onSuccess(Comment comment) {
+                    commentPosted.setValue(true);
+                    loading.setValue(false);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                    loading.setValue(false);
+                }
+            });
         });
     }
     
@@ -133,22 +154,23 @@ public class SocialViewModel extends ViewModel {
      * Suivi d'un projet
      */
     public void followProject(int projectId) {
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            return;
-        }
-        
-        socialRepository.followProject(token, projectId, new SocialRepository.FollowCallback() {
-            @Override
-            public void onSuccess(boolean isFollowing) {
-                projectFollowed.setValue(isFollowing);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-            }
+            socialRepository.followProject(projectId, new SocialRepository.FollowCallback() {
+                @Override
+                public void onSuccess(boolean isFollowing) {
+                    projectFollowed.setValue(isFollowing);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                }
+            });
         });
     }
     
@@ -156,22 +178,23 @@ public class SocialViewModel extends ViewModel {
      * Arrêt du suivi d'un projet
      */
     public void unfollowProject(int projectId) {
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            return;
-        }
-        
-        socialRepository.unfollowProject(token, projectId, new SocialRepository.FollowCallback() {
-            @Override
-            public void onSuccess(boolean isFollowing) {
-                projectFollowed.setValue(isFollowing);
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-            }
+            socialRepository.unfollowProject(projectId, new SocialRepository.FollowCallback() {
+                @Override
+                public void onSuccess(boolean isFollowing) {
+                    projectFollowed.setValue(isFollowing);
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                }
+            });
         });
     }
     
@@ -188,22 +211,23 @@ public class SocialViewModel extends ViewModel {
      * Signalement d'un commentaire
      */
     public void reportComment(int commentId, String reason) {
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            return;
-        }
-        
-        socialRepository.reportComment(token, commentId, reason, new SocialRepository.ReportCallback() {
-            @Override
-            public void onSuccess() {
-                // Commentaire signalé avec succès
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-            }
+            socialRepository.reportComment(commentId, reason, new SocialRepository.ReportCallback() {
+                @Override
+                public void onSuccess() {
+                    // Commentaire signalé avec succès
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                }
+            });
         });
     }
     
@@ -211,24 +235,31 @@ public class SocialViewModel extends ViewModel {
      * Suppression d'un commentaire (si l'utilisateur en est l'auteur)
      */
     public void deleteComment(int commentId) {
-        String token = tokenManager.getAccessToken();
-        if (token == null) {
-            error.setValue("Token d'authentification manquant");
-            return;
-        }
-        
-        socialRepository.deleteComment(token, commentId, new SocialRepository.DeleteCallback() {
-            @Override
-            public void onSuccess() {
-                // Recharger les commentaires après suppression
-                // TODO: Récupérer l'ID du projet depuis le contexte
+        tokenManager.getSession(session -> {
+            if (!session.isAuthenticated()) {
+                error.setValue("Token d'authentification manquant");
+                return;
             }
             
-            @Override
-            public void onError(String errorMessage) {
-                error.setValue(errorMessage);
-            }
+            socialRepository.deleteComment(commentId, new SocialRepository.DeleteCallback() {
+                @Override
+                public void onSuccess() {
+                    // Recharger les commentaires après suppression
+                    // TODO: Récupérer l'ID du projet depuis le contexte
+                }
+                
+                @Override
+                public void onError(String errorMessage) {
+                    error.setValue(errorMessage);
+                }
+            });
         });
     }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        RequestHandle.cancel(commentsRequest);
+        disposables.clear();
+    }
 }
-
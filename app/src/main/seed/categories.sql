@@ -0,0 +1,12 @@
+-- Catégories livrées avec l'application (base pré-remplie, voir la tâche generateSeedDatabase)
+-- Mêmes libellés que les ressources categories_* ; la liste du serveur les remplace au premier chargement
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (1, 'Technologie', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (2, 'Art', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (3, 'Musique', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (4, 'Film', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (5, 'Jeux', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (6, 'Design', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (7, 'Alimentation', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (8, 'Mode', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (9, 'Édition', NULL, NULL, NULL, 0);
+INSERT INTO categories (id, name, description, icon_url, color, created_at) VALUES (10, 'Autre', NULL, NULL, NULL, 0);
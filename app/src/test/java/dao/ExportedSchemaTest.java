@@ -0,0 +1,118 @@
+package com.crowdfundpro.android.data.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Schéma exporté de la version courante (app/schemas) comparé à la base créée par le code Room compilé
+ * La base pré-remplie (generateSeedDatabase) et MigrationTestHelper reposent sur ce fichier : une empreinte
+ * d'identité différente ferait échouer la vérification d'intégrité de Room au premier lancement
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public class ExportedSchemaTest {
+    
+    // Répertoire de travail des tests unitaires : le module app
+    private static final File SCHEMA_DIR = new File("schemas/com.crowdfundpro.android.data.db.CrowdfundProDatabase");
+    
+    // Tables, index et triggers (texte SQL tel que stocké par SQLite), hors tables internes
+    private static final String MASTER_QUERY = "SELECT type, name, sql FROM sqlite_master "
+        + "WHERE name NOT LIKE 'sqlite_%' AND name <> 'android_metadata'";
+    
+    private CrowdfundProDatabase db;
+    private SQLiteDatabase exported;
+    
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), CrowdfundProDatabase.class)
+            .allowMainThreadQueries()
+            .build();
+        exported = SQLiteDatabase.create(null);
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+        exported.close();
+    }
+    
+    @Test
+    public void exportedIdentityHashMatchesCompiledDatabase() throws Exception {
+        SupportSQLiteDatabase compiled = db.getOpenHelper().getWritableDatabase();
+        JSONObject database = readSchema(compiled.getVersion());
+        
+        try (Cursor cursor = compiled.query("SELECT identity_hash FROM room_master_table WHERE id = 42")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("identityHash de " + compiled.getVersion() + ".json : schéma à réexporter",
+                cursor.getString(0), database.getString("identityHash"));
+        }
+    }
+    
+    @Test
+    public void exportedStatementsRecreateCompiledSchema() throws Exception {
+        SupportSQLiteDatabase compiled = db.getOpenHelper().getWritableDatabase();
+        JSONObject database = readSchema(compiled.getVersion());
+        
+        // Mêmes instructions que generateSeedDatabase
+        JSONArray entities = database.getJSONArray("entities");
+        for (int i = 0; i < entities.length(); i++) {
+            JSONObject entity = entities.getJSONObject(i);
+            String table = entity.getString("tableName");
+            exported.execSQL(entity.getString("createSql").replace("${TABLE_NAME}", table));
+            JSONArray indices = entity.optJSONArray("indices");
+            for (int j = 0; indices != null && j < indices.length(); j++) {
+                JSONObject index = indices.getJSONObject(j);
+                exported.execSQL(index.getString("createSql")
+                    .replace("${INDEX_NAME}", index.getString("name"))
+                    .replace("${TABLE_NAME}", table));
+            }
+            JSONArray triggers = entity.optJSONArray("contentSyncTriggers");
+            for (int j = 0; triggers != null && j < triggers.length(); j++) {
+                exported.execSQL(triggers.getString(j));
+            }
+        }
+        JSONArray setupQueries = database.getJSONArray("setupQueries");
+        for (int i = 0; i < setupQueries.length(); i++) {
+            exported.execSQL(setupQueries.getString(i));
+        }
+        
+        assertEquals(schema(compiled.query(MASTER_QUERY)), schema(exported.rawQuery(MASTER_QUERY, null)));
+    }
+    
+    private static Map<String, String> schema(Cursor cursor) {
+        Map<String, String> schema = new TreeMap<>();
+        try (Cursor rows = cursor) {
+            while (rows.moveToNext()) {
+                schema.put(rows.getString(0) + " " + rows.getString(1), rows.getString(2));
+            }
+        }
+        return schema;
+    }
+    
+    private static JSONObject readSchema(int version) throws Exception {
+        File file = new File(SCHEMA_DIR, version + ".json");
+        assertTrue("Schéma exporté absent : " + file, file.exists());
+        return new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+            .getJSONObject("database");
+    }
+}
@@ -0,0 +1,127 @@
+package com.crowdfundpro.android.data.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import androidx.room.Room;
+import com.crowdfundpro.android.data.models.Investment;
+import com.crowdfundpro.android.data.models.InvestmentStatus;
+import com.crowdfundpro.android.data.models.Project;
+import com.crowdfundpro.android.data.models.ProjectFundingTotal;
+import com.crowdfundpro.android.data.models.ProjectStatus;
+import com.crowdfundpro.android.data.models.User;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tables de totaux maintenues par triggers (DatabaseTriggers) : après chaque série d'écritures,
+ * elles doivent être identiques à un recalcul complet par GROUP BY
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public class FundingTotalsTest {
+    
+    private static final long DAY = 86400000L;
+    
+    private CrowdfundProDatabase db;
+    private InvestmentDao investmentDao;
+    
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), CrowdfundProDatabase.class)
+            .addCallback(DatabaseTriggers.callback())
+            .allowMainThreadQueries()
+            .build();
+        investmentDao = db.investmentDao();
+        
+        db.userDao().upsertUser(new User(1, "alice", "alice@example.com", null, null, 0, 0));
+        db.userDao().upsertUser(new User(2, "bob", "bob@example.com", null, null, 0, 0));
+        db.projectDao().upsertProject(project(10, 1));
+        db.projectDao().upsertProject(project(11, 2));
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+    }
+    
+    @Test
+    public void totalsFollowInsertsUpsertsAndDeletes() {
+        investmentDao.upsertInvestment(investment(1, 10, 1, 100, InvestmentStatus.COMPLETED, 0));
+        investmentDao.upsertInvestment(investment(2, 10, 2, 50, InvestmentStatus.PENDING, DAY));
+        investmentDao.upsertInvestments(Arrays.asList(
+            investment(3, 11, 1, 25, InvestmentStatus.COMPLETED, DAY),
+            investment(4, 11, 2, 40, InvestmentStatus.FAILED, 2 * DAY),
+            investment(5, 10, 1, 10, InvestmentStatus.COMPLETED, DAY + 1)));
+        assertConsistent();
+        
+        ProjectFundingTotal total = investmentDao.getProjectFundingTotal(10);
+        assertEquals(3, total.getInvestmentCount());
+        assertEquals(110, total.getCompletedAmount(), 0.001);
+        assertEquals(50, total.getPendingAmount(), 0.001);
+        
+        // Upsert d'une ligne existante : changement de statut, de montant et de jour
+        investmentDao.upsertInvestment(investment(2, 10, 2, 60, InvestmentStatus.COMPLETED, 3 * DAY));
+        // Lot mixte : une ligne inchangée, une modifiée (updated_at plus récent), une nouvelle
+        Investment refunded = investment(3, 11, 1, 25, InvestmentStatus.REFUNDED, DAY);
+        refunded.setUpdatedAt(4);
+        assertEquals(2, investmentDao.upsertChangedInvestments(Arrays.asList(
+            investment(1, 10, 1, 100, InvestmentStatus.COMPLETED, 0),
+            refunded,
+            investment(6, 11, 2, 70, InvestmentStatus.PENDING, 4 * DAY))));
+        // Déplacement d'un investissement vers un autre projet et un autre utilisateur
+        Investment moved = investment(5, 11, 2, 10, InvestmentStatus.COMPLETED, DAY + 1);
+        moved.setUpdatedAt(5);
+        investmentDao.updateInvestment(moved);
+        assertConsistent();
+        
+        investmentDao.deleteInvestment(investment(1, 10, 1, 100, InvestmentStatus.COMPLETED, 0));
+        investmentDao.deleteInvestmentsByIds(Collections.singletonList(4));
+        assertConsistent();
+        
+        // Suppression en cascade avec le projet
+        db.projectDao().deleteProjectsByIds(Collections.singletonList(11));
+        assertConsistent();
+        
+        investmentDao.deleteAllInvestments();
+        assertConsistent();
+        assertNull(investmentDao.getProjectFundingTotal(10));
+    }
+    
+    @Test
+    public void verifyRebuildsDriftedTotals() {
+        investmentDao.upsertInvestment(investment(1, 10, 1, 100, InvestmentStatus.COMPLETED, 0));
+        investmentDao.upsertInvestment(investment(2, 11, 2, 50, InvestmentStatus.PENDING, 0));
+        db.getOpenHelper().getWritableDatabase().execSQL("UPDATE project_funding_totals SET completed_amount = 0");
+        db.getOpenHelper().getWritableDatabase().execSQL("DELETE FROM user_funding_totals WHERE user_id = 2");
+        db.getOpenHelper().getWritableDatabase().execSQL("UPDATE investment_daily_totals SET investment_count = 7");
+        
+        assertTrue(db.verifyFundingTotals() > 0);
+        assertTrue(db.verifyInvestmentDailyTotals() > 0);
+        assertConsistent();
+    }
+    
+    private void assertConsistent() {
+        assertEquals(0, investmentDao.countProjectFundingTotalMismatches());
+        assertEquals(0, investmentDao.countUserFundingTotalMismatches());
+        assertEquals(0, investmentDao.countInvestmentDailyTotalMismatches());
+    }
+    
+    private static Project project(int id, int creatorId) {
+        return new Project(id, "Projet " + id, null, 1000, 0, ProjectStatus.ACTIVE, creatorId, 1, null, 0, 0, 0);
+    }
+    
+    private static Investment investment(int id, int projectId, int userId, double amount, InvestmentStatus status,
+                                         long createdAt) {
+        return new Investment(id, projectId, userId, amount, status, null, null, createdAt, 0);
+    }
+}
@@ -0,0 +1,416 @@
+package com.crowdfundpro.android.data.db;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import io.reactivex.rxjava3.core.Flowable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Plans d'exécution (EXPLAIN QUERY PLAN) de toutes les requêtes des DAO
+ * Le texte SQL et ses arguments sont ceux que Room exécute (QueryCallback) : chaque méthode @Query est appelée
+ * une fois sur une base vide. Aucune requête ne parcourt une table entière ni ne trie dans un B-tree temporaire,
+ * hors des exceptions justifiées de EXCEPTIONS ; les requêtes fréquentes passent en plus par l'index prévu pour elles
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public class QueryPlanTest {
+    
+    // Requêtes admises à parcourir une table ou à trier hors index, avec leur justification
+    private static final Map<String, String> EXCEPTIONS = new HashMap<>();
+    
+    static {
+        String reference = "table de référence d'une dizaine de lignes livrée avec l'application";
+        EXCEPTIONS.put("CategoryDao.getAllCategories", reference);
+        EXCEPTIONS.put("CategoryDao.observeAllCategories", reference);
+        EXCEPTIONS.put("CategoryDao.getCategoryByName", reference);
+        EXCEPTIONS.put("CategoryDao.getCategoryCount", reference);
+        
+        String unused = "non appelée par l'application (connexion et export passent par l'API)";
+        EXCEPTIONS.put("UserDao.getUserByUsername", unused);
+        EXCEPTIONS.put("UserDao.getUserByEmail", unused);
+        EXCEPTIONS.put("InvestmentDao.getAllInvestments", unused);
+        
+        String clear = "vidage complet de la table (déconnexion)";
+        EXCEPTIONS.put("CategoryDao.deleteAllCategories", clear);
+        EXCEPTIONS.put("CommentDao.deleteAllComments", clear);
+        EXCEPTIONS.put("InvestmentDao.deleteAllInvestments", clear);
+        EXCEPTIONS.put("ProjectDao.deleteAllProjects", clear);
+        EXCEPTIONS.put("SyncStateDao.deleteAllSyncStates", clear);
+        EXCEPTIONS.put("UserDao.deleteAllUsers", clear);
+        
+        String verification = "contrôle de cohérence : recalcul complet, hors du chemin d'affichage";
+        EXCEPTIONS.put("InvestmentDao.countInvestmentDailyTotalMismatches", verification);
+        EXCEPTIONS.put("InvestmentDao.countProjectFundingTotalMismatches", verification);
+        EXCEPTIONS.put("InvestmentDao.countUserFundingTotalMismatches", verification);
+        EXCEPTIONS.put("ProjectDao.getListedProjectsChecksum",
+            "empreinte de tous les projets listés, comparée une fois à l'index en mémoire après son chargement");
+        
+        String periods = "regroupement par semaine ou par mois calculé sur les jours d'un utilisateur "
+            + "(une ligne par jour investi, plage lue dans la clé primaire)";
+        EXCEPTIONS.put("InvestmentDao.observeWeeklyTotals", periods);
+        EXCEPTIONS.put("InvestmentDao.observeMonthlyTotals", periods);
+        
+        // Voir activeProjectsReadStatusEndDateRangeAndSortItInTempBTree et searchJoinsFtsMatchesByRowid
+        EXCEPTIONS.put("ProjectDao.getActiveProjects", "tri de la plage (status, end_date) par date de création");
+        EXCEPTIONS.put("ProjectDao.searchProjects", "tri des correspondances plein texte (titre d'abord, puis date)");
+    }
+    
+    // Parcours complet d'une table : « SCAN projects » ou « SCAN TABLE projects AS p », sans index
+    private static final Pattern FULL_SCAN = Pattern.compile("SCAN (TABLE )?(\\w+)( AS \\w+)?");
+    // Sous-requêtes de la clause FROM : leur parcours n'est pas celui d'une table
+    private static final Pattern SUBQUERY = Pattern.compile("(CO-ROUTINE|MATERIALIZE) (\\w+)");
+    
+    private CrowdfundProDatabase db;
+    private final List<Statement> captured = new ArrayList<>();
+    private boolean recording;
+    
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), CrowdfundProDatabase.class)
+            .allowMainThreadQueries()
+            // Exécution sur le thread du test : les Flowable lancent leur requête dès l'abonnement
+            .setQueryExecutor(Runnable::run)
+            .setQueryCallback((sql, bindArgs) -> {
+                if (recording) {
+                    captured.add(new Statement(sql, bindArgs.toArray()));
+                }
+            }, Runnable::run)
+            .build();
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+    }
+    
+    @Test
+    public void everyDaoQueryAvoidsFullScansAndTempBTrees() throws Exception {
+        List<String> violations = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Object dao : daos()) {
+            for (Method method : queryMethods(dao)) {
+                String name = daoName(dao) + "." + method.getName();
+                seen.add(name);
+                List<Statement> statements = invoke(dao, method);
+                assertFalse("Aucune requête exécutée par " + name, statements.isEmpty());
+                if (EXCEPTIONS.containsKey(name)) continue;
+                for (Statement statement : statements) {
+                    List<String> plan = plan(statement);
+                    for (String problem : problems(plan)) {
+                        violations.add(name + " : " + problem + "\n  " + statement.sql + "\n  " + plan);
+                    }
+                }
+            }
+        }
+        
+        assertTrue(String.join("\n", violations), violations.isEmpty());
+        // Exceptions sans objet (méthode renommée ou supprimée)
+        for (String name : EXCEPTIONS.keySet()) {
+            assertTrue("Exception inconnue : " + name, seen.contains(name));
+        }
+    }
+    
+    @Test
+    public void investmentListsUseUserAndProjectIndices() {
+        InvestmentDao dao = db.investmentDao();
+        assertPlan(dao, "getInvestmentsByUser", "index_investments_user_id_created_at");
+        assertPlan(dao, "observeInvestmentsByUser", "index_investments_user_id_created_at");
+        assertPlan(dao, "getRecentInvestmentsByUser", "index_investments_user_id_created_at");
+        assertPlan(dao, "getInvestmentsByProject", "index_investments_project_id_created_at");
+        assertPlan(dao, "observeInvestmentsByProject", "index_investments_project_id_created_at");
+        assertPlan(dao, "getUserInvestmentsForProject", "index_investments_user_id_project_id_created_at");
+        assertPlan(dao, "getInvestmentsByStatus", "index_investments_status_created_at");
+    }
+    
+    @Test
+    public void investmentProjectionsJoinThroughIndices() {
+        // Projets lus par clé primaire
+        InvestmentDao dao = db.investmentDao();
+        assertPlan(dao, "observeInvestmentsWithProjectByUser", "index_investments_user_id_created_at");
+        assertPlan(dao, "observeInvestmentsWithProjectByProject", "index_investments_project_id_created_at");
+    }
+    
+    @Test
+    public void investmentAggregatesReadOnlyIndices() {
+        InvestmentDao dao = db.investmentDao();
+        // Lu entièrement dans l'index (user_id, status, amount)
+        assertPlan(dao, "observeInvestmentTotalsByStatus", "index_investments_user_id_status_amount");
+        // N'importe quel index commençant par user_id
+        assertPlan(dao, "countInvestmentsByUser", "index_investments_user_id");
+        assertPlan(dao, "hasInvestmentsForUser", "index_investments_user_id");
+    }
+    
+    @Test
+    public void projectListsUseStatusCategoryAndCreatorIndices() {
+        ProjectDao dao = db.projectDao();
+        // Parcours ordonné de l'index (created_at)
+        assertPlan(dao, "getAllProjects", "index_projects_created_at");
+        assertPlan(dao, "getProjectsByCategory", "index_projects_category_id_created_at");
+        assertPlan(dao, "getProjectsByStatus", "index_projects_status_created_at");
+        assertPlan(dao, "observeProjectsByStatus", "index_projects_status_created_at");
+        assertPlan(dao, "getProjectsByCreator", "index_projects_creator_id_created_at");
+        // Parcours ordonné de l'index (current_amount)
+        assertPlan(dao, "getPopularProjects", "index_projects_current_amount");
+    }
+    
+    @Test
+    public void keysetPagesUseTheIndexOfTheirFilters() {
+        ProjectDao dao = db.projectDao();
+        assertPlan(dao, "getAllProjectsPageAfter", "index_projects_created_at");
+        assertPlan(dao, "getProjectsByStatusPageAfter", "index_projects_status_created_at");
+        assertPlan(dao, "getProjectsByCategoryPageAfter", "index_projects_category_id_created_at");
+        assertPlan(dao, "getProjectsByStatusAndCategoryPageAfter", "index_projects_category_id_created_at");
+    }
+    
+    @Test
+    public void cacheEvictionWalksUpdatedAtIndices() {
+        // Lignes les moins récemment mises à jour lues dans l'ordre de l'index, sans tri
+        assertPlan(db.projectDao(), "getStaleProjectIds", "index_projects_updated_at");
+        assertPlan(db.projectDao(), "getOldestEvictableProjectIds", "index_projects_updated_at");
+        assertPlan(db.investmentDao(), "getStaleInvestmentIds", "index_investments_updated_at");
+        assertPlan(db.investmentDao(), "getOldestEvictableInvestmentIds", "index_investments_updated_at");
+        assertPlan(db.commentDao(), "getStaleCommentIds", "index_comments_updatedAt");
+        assertPlan(db.commentDao(), "getOldestCommentIds", "index_comments_updatedAt");
+    }
+    
+    @Test
+    public void commentsOfAProjectReadInDisplayOrder() {
+        assertPlan(db.commentDao(), "getCommentsByProject", "index_comments_projectId_createdAt");
+        assertPlan(db.commentDao(), "observeCommentsByProject", "index_comments_projectId_createdAt");
+    }
+    
+    @Test
+    public void summariesReadByPrimaryKey() {
+        InvestmentDao dao = db.investmentDao();
+        assertPlan(dao, "getProjectFundingTotal", "PRIMARY KEY");
+        assertPlan(dao, "observeUserFundingTotal", "PRIMARY KEY");
+        assertPlan(dao, "getTotalCollectedForProject", "PRIMARY KEY");
+        assertPlan(dao, "getTotalInvestedByUser", "PRIMARY KEY");
+        assertPlan(dao, "observeDailyTotals", "sqlite_autoindex_investment_daily_totals_1");
+    }
+    
+    /**
+     * Exception documentée : la plage des projets actifs non échus est lue dans (status, end_date), puis triée
+     * par date de création dans un B-tree temporaire. Un index (status, created_at) éviterait le tri mais
+     * parcourrait aussi tous les projets actifs déjà échus ; la plage non échue reste la plus petite
+     */
+    @Test
+    public void activeProjectsReadStatusEndDateRangeAndSortItInTempBTree() {
+        assertUsesIndex(plan(db.projectDao(), "getActiveProjects"), "index_projects_status_end_date");
+    }
+    
+    /**
+     * Exception documentée : le tri (correspondances du titre d'abord, puis date) porte sur le résultat
+     * de la recherche plein texte et ne peut pas venir d'un index ; les projets sont lus par clé primaire
+     */
+    @Test
+    public void searchJoinsFtsMatchesByRowid() {
+        List<String> plan = plan(db.projectDao(), "searchProjects");
+        assertUsesIndex(plan, "PRIMARY KEY");
+        assertTrue("Index plein texte non utilisé : " + plan, String.join("\n", plan).contains("projects_fts VIRTUAL TABLE"));
+    }
+    
+    /**
+     * Les requêtes de la méthode utilisent l'index attendu, sans parcours complet ni tri temporaire
+     */
+    private void assertPlan(Object dao, String method, String index) {
+        List<String> plan = plan(dao, method);
+        assertUsesIndex(plan, index);
+        List<String> problems = problems(plan);
+        assertTrue(method + " : " + problems + "\n" + plan, problems.isEmpty());
+    }
+    
+    private static void assertUsesIndex(List<String> plan, String index) {
+        boolean usesIndex = false;
+        for (String step : plan) {
+            usesIndex |= step.contains(index);
+        }
+        assertTrue("Index " + index + " non utilisé : " + plan, usesIndex);
+    }
+    
+    /**
+     * Parcours complets de table et tris temporaires d'un plan
+     */
+    private static List<String> problems(List<String> plan) {
+        Set<String> subqueries = new HashSet<>();
+        for (String step : plan) {
+            Matcher matcher = SUBQUERY.matcher(step);
+            if (matcher.find()) subqueries.add(matcher.group(2));
+        }
+        List<String> problems = new ArrayList<>();
+        for (String step : plan) {
+            Matcher matcher = FULL_SCAN.matcher(step);
+            if (matcher.matches() && !subqueries.contains(matcher.group(2))) {
+                problems.add("parcours complet (" + step + ")");
+            }
+            if (step.contains("TEMP B-TREE")) {
+                problems.add("tri temporaire (" + step + ")");
+            }
+        }
+        return problems;
+    }
+    
+    /**
+     * Plan de toutes les requêtes exécutées par une méthode du DAO
+     */
+    private List<String> plan(Object dao, String methodName) {
+        try {
+            for (Method method : queryMethods(dao)) {
+                if (!method.getName().equals(methodName)) continue;
+                List<String> steps = new ArrayList<>();
+                for (Statement statement : invoke(dao, method)) {
+                    steps.addAll(plan(statement));
+                }
+                return steps;
+            }
+        } catch (Exception e) {
+            throw new AssertionError(methodName, e);
+        }
+        throw new AssertionError("Méthode absente : " + daoName(dao) + "." + methodName);
+    }
+    
+    private List<String> plan(Statement statement) {
+        List<String> steps = new ArrayList<>();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase()
+                .query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + statement.sql, statement.args))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detail));
+            }
+        }
+        return steps;
+    }
+    
+    /**
+     * Appel de la méthode avec des arguments neutres ; retourne les requêtes SQL exécutées par Room
+     */
+    private List<Statement> invoke(Object dao, Method method) throws Exception {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = argument(types[i]);
+        }
+        
+        captured.clear();
+        recording = true;
+        try {
+            Object result = method.invoke(dao, args);
+            if (result instanceof Flowable) {
+                ((Flowable<?>) result).test().dispose();
+            }
+        } catch (InvocationTargetException e) {
+            // Insertion d'ébauche refusée par une clé étrangère sur la base vide : la requête a bien été exécutée
+            if (!(e.getCause() instanceof SQLiteConstraintException)) throw e;
+        } finally {
+            recording = false;
+        }
+        
+        List<Statement> statements = new ArrayList<>();
+        for (Statement statement : captured) {
+            if (statement.isQuery()) statements.add(statement);
+        }
+        return statements;
+    }
+    
+    /**
+     * Méthodes @Query du DAO : méthodes abstraites dont les paramètres sont des valeurs (les entités vont aux
+     * méthodes @Insert / @Upsert / @Update / @Delete, générées par Room), dans l'ordre alphabétique
+     */
+    private static List<Method> queryMethods(Object dao) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : daoInterface(dao).getDeclaredMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) continue;
+            boolean values = true;
+            for (Type type : method.getGenericParameterTypes()) {
+                values &= argument(type) != null;
+            }
+            if (values) methods.add(method);
+        }
+        methods.sort(Comparator.comparing(Method::getName));
+        return methods;
+    }
+    
+    /**
+     * Valeur neutre d'un paramètre de requête, ou null s'il ne s'agit pas d'une valeur
+     */
+    private static Object argument(Type type) {
+        if (type == int.class || type == Integer.class) return 1;
+        if (type == long.class || type == Long.class) return 1L;
+        if (type == double.class || type == Double.class) return 1.0;
+        if (type == boolean.class || type == Boolean.class) return true;
+        // Chaîne valable aussi comme expression MATCH
+        if (type == String.class) return "solaire";
+        if (type instanceof Class && ((Class<?>) type).isEnum()) return ((Class<?>) type).getEnumConstants()[0];
+        if (type instanceof ParameterizedType
+                && Collection.class.isAssignableFrom((Class<?>) ((ParameterizedType) type).getRawType())) {
+            Object element = argument(((ParameterizedType) type).getActualTypeArguments()[0]);
+            return element != null ? Collections.singletonList(element) : null;
+        }
+        return null;
+    }
+    
+    private List<Object> daos() {
+        return Arrays.asList(db.userDao(), db.projectDao(), db.investmentDao(), db.categoryDao(), db.commentDao(),
+            db.syncStateDao());
+    }
+    
+    private static Class<?> daoInterface(Object dao) {
+        return dao.getClass().getInterfaces()[0];
+    }
+    
+    private static String daoName(Object dao) {
+        return daoInterface(dao).getSimpleName();
+    }
+    
+    /**
+     * Requête exécutée par Room, telle que reçue par le QueryCallback
+     */
+    private static final class Statement {
+        final String sql;
+        final Object[] args;
+        
+        Statement(String sql, Object[] args) {
+            this.sql = sql;
+            this.args = args;
+        }
+        
+        /**
+         * Requête d'un DAO, hors transactions et suivi des invalidations de Room
+         */
+        boolean isQuery() {
+            String verb = sql.trim().split("\\s+")[0].toUpperCase(Locale.ROOT);
+            return Arrays.asList("SELECT", "INSERT", "UPDATE", "DELETE", "WITH", "REPLACE").contains(verb)
+                && !sql.contains("room_table_modification_log");
+        }
+    }
+}